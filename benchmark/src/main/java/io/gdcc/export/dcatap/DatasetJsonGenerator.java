@@ -0,0 +1,156 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import java.util.Arrays;
+
+/**
+ * Generates Dataverse dataset JSON with the same shape as the 'cars' test dataset,
+ * but with any number of files, authors and keywords.
+ *
+ * The values are derived from the index only, so the same arguments always give the same JSON.
+ */
+public class DatasetJsonGenerator {
+    private static final String[] CONTENT_TYPES = {
+        "text/x-python", "text/markdown", "text/tab-separated-values", 
+        "application/pdf", "text/csv", "application/zip"
+    };
+    private static final String[] EXTENSIONS = {"py", "md", "tab", "pdf", "csv", "zip"};
+    private static final String[] LANGUAGES = {"Danish", "Dutch", "English"};
+
+    private DatasetJsonGenerator() {
+    }
+
+    public static JsonObject generate(int fileCount, int authorCount, int keywordCount) {
+        JsonArrayBuilder citationFields = Json.createArrayBuilder()
+                .add(primitive("title", "Generated dataset with " + fileCount + " files"))
+                .add(compound("author", authors(authorCount)))
+                .add(compound("datasetContact", Json.createArrayBuilder().add(Json.createObjectBuilder()
+                        .add("datasetContactName", primitive("datasetContactName", "Durbin, Philip"))
+                        .add("datasetContactAffiliation", primitive("datasetContactAffiliation", "Harvard"))
+                        .add("datasetContactEmail", primitive("datasetContactEmail", "dataverse@mailinator.com")))))
+                .add(compound("dsDescription", Json.createArrayBuilder().add(Json.createObjectBuilder()
+                        .add("dsDescriptionValue", primitive("dsDescriptionValue", "This dataset is about cars.")))))
+                .add(Json.createObjectBuilder()
+                        .add("typeName", "subject")
+                        .add("multiple", true)
+                        .add("typeClass", "controlledVocabulary")
+                        .add("value", Json.createArrayBuilder().add("Engineering")))
+                .add(compound("keyword", keywords(keywordCount)))
+                .add(Json.createObjectBuilder()
+                        .add("typeName", "language")
+                        .add("multiple", true)
+                        .add("typeClass", "controlledVocabulary")
+                        .add("value", Json.createArrayBuilder(Arrays.asList(LANGUAGES))));
+
+        JsonObjectBuilder datasetVersion = Json.createObjectBuilder()
+                .add("id", 1)
+                .add("datasetId", 3)
+                .add("datasetPersistentId", "doi:10.5072/FK2/GENERATED")
+                .add("versionNumber", 1)
+                .add("versionMinorNumber", 0)
+                .add("versionState", "RELEASED")
+                .add("lastUpdateTime", "2024-03-20T14:02:13Z")
+                .add("releaseTime", "2024-03-20T14:02:13Z")
+                .add("createTime", "2024-03-20T14:02:04Z")
+                .add("publicationDate", "2024-03-20")
+                .add("citationDate", "2024-03-20")
+                .add("license", Json.createObjectBuilder()
+                        .add("name", "CC0 1.0")
+                        .add("uri", "http://creativecommons.org/publicdomain/zero/1.0"))
+                .add("fileAccessRequest", true)
+                .add("metadataBlocks", Json.createObjectBuilder()
+                        .add("citation", Json.createObjectBuilder()
+                                .add("displayName", "Citation Metadata")
+                                .add("name", "citation")
+                                .add("fields", citationFields)))
+                .add("files", files(fileCount));
+
+        return Json.createObjectBuilder()
+                .add("id", 3)
+                .add("identifier", "FK2/GENERATED")
+                .add("persistentUrl", "https://doi.org/10.5072/FK2/GENERATED")
+                .add("protocol", "doi")
+                .add("authority", "10.5072")
+                .add("publisher", "Root")
+                .add("publicationDate", "2024-03-20")
+                .add("datasetVersion", datasetVersion)
+                .build();
+    }
+
+    static JsonObject file(int i) {
+        int type = i % CONTENT_TYPES.length;
+        String filename = "file-" + i + "." + EXTENSIONS[type];
+        String md5 = String.format("%032x", (long) i * 2654435761L);
+        return Json.createObjectBuilder()
+                .add("description", i % 3 == 0 ? "Description of file " + i : "")
+                .add("label", filename)
+                .add("restricted", i % 10 == 0)
+                .add("directoryLabel", "data/" + (i / 1000))
+                .add("version", 1)
+                .add("datasetVersionId", 1)
+                .add("dataFile", Json.createObjectBuilder()
+                        .add("id", 1000 + i)
+                        .add("persistentId", "")
+                        .add("filename", filename)
+                        .add("contentType", CONTENT_TYPES[type])
+                        .add("filesize", 1024 + i)
+                        .add("description", i % 3 == 0 ? "Description of file " + i : "")
+                        .add("storageIdentifier", "local://" + Integer.toHexString(i))
+                        .add("rootDataFileId", -1)
+                        .add("md5", md5)
+                        .add("checksum", Json.createObjectBuilder()
+                                .add("type", "MD5")
+                                .add("value", md5))
+                        .add("tabularData", false)
+                        .add("creationDate", "2024-03-20")
+                        .add("publicationDate", "2024-03-20")
+                        .add("fileAccessRequest", true))
+                .build();
+    }
+
+    private static JsonArrayBuilder files(int fileCount) {
+        JsonArrayBuilder files = Json.createArrayBuilder();
+        for (int i = 0; i < fileCount; i++) {
+            files.add(file(i));
+        }
+        return files;
+    }
+
+    private static JsonArrayBuilder authors(int authorCount) {
+        JsonArrayBuilder authors = Json.createArrayBuilder();
+        for (int i = 0; i < authorCount; i++) {
+            authors.add(Json.createObjectBuilder()
+                    .add("authorName", primitive("authorName", "Author " + i))
+                    .add("authorAffiliation", primitive("authorAffiliation", "Affiliation " + (i % 10))));
+        }
+        return authors;
+    }
+
+    private static JsonArrayBuilder keywords(int keywordCount) {
+        JsonArrayBuilder keywords = Json.createArrayBuilder();
+        for (int i = 0; i < keywordCount; i++) {
+            keywords.add(Json.createObjectBuilder()
+                    .add("keywordValue", primitive("keywordValue", "Keyword " + i)));
+        }
+        return keywords;
+    }
+
+    private static JsonObjectBuilder primitive(String typeName, String value) {
+        return Json.createObjectBuilder()
+                .add("typeName", typeName)
+                .add("multiple", false)
+                .add("typeClass", "primitive")
+                .add("value", value);
+    }
+
+    private static JsonObjectBuilder compound(String typeName, JsonArrayBuilder values) {
+        return Json.createObjectBuilder()
+                .add("typeName", typeName)
+                .add("multiple", true)
+                .add("typeClass", "compound")
+                .add("value", values);
+    }
+}
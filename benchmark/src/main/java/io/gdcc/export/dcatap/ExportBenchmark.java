@@ -0,0 +1,70 @@
+package io.gdcc.export.dcatap;
+
+import io.gdcc.spi.export.ExportException;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The complete export, like Dataverse calls it, for each output language.
+ * Every invocation maps and serializes: the graph cache is disabled, and the planner never changes
+ * the strategy, so the streaming parameter is what is measured, also for the large datasets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExportBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int files;
+
+    @Param({"50"})
+    int authors;
+
+    @Param({"50"})
+    int keywords;
+
+    // empty is the default, which is RDF/XML
+    @Param({"", "TURTLE", "JSON-LD", "N-TRIPLES"})
+    String outputLang;
+
+    @Param({"false", "true"})
+    boolean streaming;
+
+    DCATAPExporter exporter;
+    GeneratedDataProvider dataProvider;
+    ByteArrayOutputStream outputStream;
+
+    @Setup
+    public void setUp() {
+        exporter = new DCATAPExporter();
+        exporter.setOutputLang(outputLang);
+        exporter.setStreaming(streaming);
+        // otherwise all invocations after the first only serialize the cached graph
+        exporter.setGraphCache(null);
+        exporter.setPlanner(new ExportPlanner(Long.MAX_VALUE));
+        dataProvider = new GeneratedDataProvider(
+                DatasetJsonGenerator.generate(files, authors, keywords));
+        outputStream = new ByteArrayOutputStream();
+    }
+
+    @Benchmark
+    public int exportDataset() throws ExportException {
+        outputStream.reset();
+        exporter.exportDataset(dataProvider, outputStream);
+        return outputStream.size();
+    }
+}
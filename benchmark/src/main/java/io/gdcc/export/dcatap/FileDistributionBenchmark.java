@@ -0,0 +1,57 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mapping a single file to a distribution, the part that scales with the number of files.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FileDistributionBenchmark {
+
+    DCATAPExporter exporter;
+    JsonObject fileObj;
+    JsonObject licenseObj;
+    Model model;
+
+    @Setup
+    public void setUp() {
+        exporter = new DCATAPExporter();
+        fileObj = DatasetJsonGenerator.file(42);
+        licenseObj = Json.createObjectBuilder()
+                .add("name", "CC0 1.0")
+                .add("uri", "http://creativecommons.org/publicdomain/zero/1.0")
+                .build();
+    }
+
+    // a fresh model every iteration, so it does not grow for the whole run
+    @Setup(Level.Iteration)
+    public void newModel() {
+        model = ModelFactory.createDefaultModel();
+    }
+
+    @Benchmark
+    public Resource createFileDistribution() {
+        return exporter.createFileDistribution(model, fileObj, licenseObj);
+    }
+}
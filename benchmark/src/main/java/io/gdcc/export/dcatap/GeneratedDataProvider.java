@@ -0,0 +1,43 @@
+package io.gdcc.export.dcatap;
+
+import io.gdcc.spi.export.ExportDataProvider;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+
+/**
+ * Hands out generated dataset JSON, like Dataverse would.
+ * The exporter only uses the dataset JSON, the other formats are empty.
+ */
+public class GeneratedDataProvider implements ExportDataProvider {
+    private final JsonObject datasetJson;
+
+    public GeneratedDataProvider(JsonObject datasetJson) {
+        this.datasetJson = datasetJson;
+    }
+
+    @Override
+    public JsonObject getDatasetJson() {
+        return datasetJson;
+    }
+
+    @Override
+    public JsonObject getDatasetORE() {
+        return JsonValue.EMPTY_JSON_OBJECT;
+    }
+
+    @Override
+    public JsonArray getDatasetFileDetails() {
+        return JsonValue.EMPTY_JSON_ARRAY;
+    }
+
+    @Override
+    public JsonObject getDatasetSchemaDotOrg() {
+        return JsonValue.EMPTY_JSON_OBJECT;
+    }
+
+    @Override
+    public String getDataCiteXml() {
+        return "";
+    }
+}
@@ -0,0 +1,51 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.json.JsonObject;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.rdf.model.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mapping the dataset JSON to a Jena model, without writing it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int files;
+
+    @Param({"50"})
+    int authors;
+
+    @Param({"50"})
+    int keywords;
+
+    DCATAPExporter exporter;
+    JsonObject datasetJson;
+
+    @Setup
+    public void setUp() {
+        exporter = new DCATAPExporter();
+        datasetJson = DatasetJsonGenerator.generate(files, authors, keywords);
+    }
+
+    @Benchmark
+    public Model createRDFModelFromDatasetJson() {
+        return exporter.createRDFModelFromDatasetJson(datasetJson);
+    }
+}
@@ -0,0 +1,133 @@
+package io.gdcc.export.dcatap;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
+
+/**
+ * An EU authority table (file types, languages, data themes, licences) bundled with the exporter,
+ * to map the values of Dataverse to the IRIs that DCAT-AP wants.
+ *
+ * The tables are not read from the SKOS files of the Publications Office, and never from the network.
+ * Each is a small tab separated resource with a value and the code of its concept,
+ * and is loaded once into a compact open addressing hash table: two arrays, the normalized values
+ * and the resources for their IRIs. So a lookup is a hash and (mostly) one compare, whatever the size of the table.
+ * Values are compared trimmed and in lower case.
+ */
+final class AuthorityTable {
+    static final String AUTHORITY = "http://publications.europa.eu/resource/authority/";
+
+    private static final AuthorityTable FILE_TYPE = load("file-type");
+    private static final AuthorityTable LANGUAGE = load("language");
+    private static final AuthorityTable DATA_THEME = load("data-theme");
+    private static final AuthorityTable LICENCE = load("licence");
+
+    // normalized values, null for a free slot; the length is a power of two
+    private final String[] keys;
+    private final Resource[] concepts;
+    private final int mask;
+    private final int size;
+
+    AuthorityTable(String namespace, List<String[]> rows) {
+        int capacity = Integer.highestOneBit(Math.max(rows.size(), 1) * 2 - 1) << 1;
+        this.keys = new String[capacity];
+        this.concepts = new Resource[capacity];
+        this.mask = capacity - 1;
+        int count = 0;
+        for (String[] row : rows) {
+            String key = normalize(row[0]);
+            int slot = slot(key);
+            if (keys[slot] == null) {
+                keys[slot] = key;
+                concepts[slot] = ResourceFactory.createResource(namespace + row[1]);
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    /** Media types to the file-type table, for dct:format. */
+    static AuthorityTable fileType() {
+        return FILE_TYPE;
+    }
+
+    /** Language names to the language table, for dct:language. */
+    static AuthorityTable language() {
+        return LANGUAGE;
+    }
+
+    /** Dataverse subjects to the data-theme table, for dcat:theme. */
+    static AuthorityTable dataTheme() {
+        return DATA_THEME;
+    }
+
+    /** Licence names to the licence table, for dct:license when Dataverse has no URI. */
+    static AuthorityTable licence() {
+        return LICENCE;
+    }
+
+    /** The concept for the value, or null when it is not in the table. */
+    Resource get(String value) {
+        if (value == null) {
+            return null;
+        }
+        String key = normalize(value);
+        return key.isEmpty() ? null : concepts[slot(key)];
+    }
+
+    /** The number of distinct values. */
+    int size() {
+        return size;
+    }
+
+    // the slot of the key, or the free slot where it goes; linear probing, the table is never more than half full
+    private int slot(String key) {
+        int slot = spread(key.hashCode()) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Read the table from the resource authority/{name}.tsv, for the concepts in AUTHORITY/{name}/. */
+    static AuthorityTable load(String name) {
+        String resource = "authority/" + name + ".tsv";
+        List<String[]> rows = new ArrayList<>();
+        try (InputStream in = AuthorityTable.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing authority table: " + resource);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] row = line.split("\t");
+                if (row.length != 2) {
+                    throw new IllegalStateException("Invalid line in " + resource + ": " + line);
+                }
+                rows.add(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new AuthorityTable(AUTHORITY + name + "/", rows);
+    }
+}
@@ -0,0 +1,44 @@
+package io.gdcc.export.dcatap;
+
+import io.gdcc.spi.export.ExportDataProvider;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * One dataset to export in a bulk export, with where to write it to.
+ */
+public final class BulkExportItem {
+
+    /** Opens the stream to write the export to, it is only opened when the export starts. */
+    @FunctionalInterface
+    public interface Output {
+        OutputStream open() throws IOException;
+    }
+
+    private final String id;
+    private final ExportDataProvider dataProvider;
+    private final Output output;
+
+    /**
+     * @param id identifies the dataset in the report, the persistent identifier for instance
+     * @param dataProvider the dataset to export
+     * @param output the stream to write to, it is closed after the export
+     */
+    public BulkExportItem(String id, ExportDataProvider dataProvider, Output output) {
+        this.id = id;
+        this.dataProvider = dataProvider;
+        this.output = output;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ExportDataProvider getDataProvider() {
+        return dataProvider;
+    }
+
+    public Output getOutput() {
+        return output;
+    }
+}
@@ -0,0 +1,96 @@
+package io.gdcc.export.dcatap;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a bulk export: how many datasets were exported, which ones failed and how fast it went.
+ */
+public final class BulkExportReport {
+
+    /** A dataset that could not be exported. */
+    public static final class Failure {
+        private final String id;
+        private final Exception exception;
+
+        Failure(String id, Exception exception) {
+            this.id = id;
+            this.exception = exception;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Exception getException() {
+            return exception;
+        }
+
+        @Override
+        public String toString() {
+            return id + ": " + exception;
+        }
+    }
+
+    private final long succeeded;
+    private final List<Failure> failures;
+    private final long bytesWritten;
+    private final Duration elapsed;
+
+    BulkExportReport(long succeeded, List<Failure> failures, long bytesWritten, Duration elapsed) {
+        this.succeeded = succeeded;
+        this.failures = Collections.unmodifiableList(failures);
+        this.bytesWritten = bytesWritten;
+        this.elapsed = elapsed;
+    }
+
+    public long getTotal() {
+        return succeeded + failures.size();
+    }
+
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    public long getFailed() {
+        return failures.size();
+    }
+
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    /** Bytes written by the successful exports. */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public double getDatasetsPerSecond() {
+        return perSecond(getTotal());
+    }
+
+    public double getBytesPerSecond() {
+        return perSecond(bytesWritten);
+    }
+
+    private double perSecond(long count) {
+        long nanos = Math.max(1, elapsed.toNanos());
+        return count * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "Exported %d datasets (%d failed) in %.1f s: %.1f datasets/s, %.2f MB/s",
+                getTotal(),
+                getFailed(),
+                elapsed.toMillis() / 1000.0,
+                getDatasetsPerSecond(),
+                getBytesPerSecond() / (1024 * 1024));
+    }
+}
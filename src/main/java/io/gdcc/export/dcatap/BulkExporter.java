@@ -0,0 +1,102 @@
+package io.gdcc.export.dcatap;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exports many datasets at the same time, for instance to re-export everything after a plugin upgrade.
+ *
+ * The exports run on a fixed size thread pool. 
+ * Only a limited number of datasets is taken from the items at a time,
+ * so a lazy Iterable (that fetches datasets when asked) is never read much further than the exports can keep up with.
+ * A dataset that fails to export is recorded in the report, it does not stop the other exports.
+ */
+public class BulkExporter {
+    private final DCATAPExporter exporter;
+    private final int parallelism;
+    private final int maxInFlight;
+
+    /** Uses all processors, with twice as many datasets in flight. */
+    public BulkExporter(DCATAPExporter exporter) {
+        this(exporter, Runtime.getRuntime().availableProcessors(), 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param exporter does the actual exports
+     * @param parallelism number of exports running at the same time
+     * @param maxInFlight maximum number of datasets taken from the items but not yet exported, at least parallelism
+     */
+    public BulkExporter(DCATAPExporter exporter, int parallelism, int maxInFlight) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.exporter = exporter;
+        this.parallelism = parallelism;
+        this.maxInFlight = Math.max(parallelism, maxInFlight);
+    }
+
+    /**
+     * Exports all items with the given configuration and waits until all are done.
+     * The output streams of the items are closed after their export.
+     */
+    public BulkExportReport exportAll(Iterable<BulkExportItem> items, ExportConfig config)
+            throws InterruptedException {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "dcat-ap-bulk-export-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong bytesWritten = new AtomicLong();
+        Queue<BulkExportReport.Failure> failures = new ConcurrentLinkedQueue<>();
+
+        long start = System.nanoTime();
+        try {
+            for (BulkExportItem item : items) {
+                // backpressure, wait until there is room before taking the next item
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        bytesWritten.addAndGet(export(item, config));
+                        succeeded.incrementAndGet();
+                    } catch (Exception e) {
+                        failures.add(new BulkExportReport.Failure(item.getId(), e));
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+        while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            // keep waiting for the running exports
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        List<BulkExportReport.Failure> failureList = new ArrayList<>(failures);
+        return new BulkExportReport(succeeded.get(), failureList, bytesWritten.get(), elapsed);
+    }
+
+    private long export(BulkExportItem item, ExportConfig config) throws Exception {
+        try (OutputStream out = item.getOutput().open()) {
+            CountingOutputStream countingOut = new CountingOutputStream(out);
+            exporter.exportDataset(item.getDataProvider(), countingOut, config);
+            return countingOut.getCount();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package io.gdcc.export.dcatap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.apache.jena.graph.Node;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * Base for the streaming writers that write UTF-8 bytes straight into a buffer.
+ *
+ * The parts that are the same in every export (prefix header, the vocabulary terms, constant values)
+ * are encoded once, in a table of byte fragments per format, and just copied into the buffer.
+ * Only the values that differ per dataset or file (titles, ids, sizes, checksums) are escaped and encoded.
+ * Values that repeat within an export, like the license and media types, are encoded once per writer.
+ */
+abstract class ByteEmitter implements StreamRDF {
+    private static final int BUFFER_SIZE = 32 * 1024;
+    // values encoded once per writer, the ones that repeat are normally seen early
+    private static final int MAX_CACHED_VALUES = 256;
+    private static final int MAX_CACHED_VALUE_LENGTH = 128;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private long flushCount = 0;
+    private Map<Node, byte[]> constants;
+    private final Map<Node, byte[]> cachedValues = new HashMap<>();
+
+    /**
+     * @param constants the precompiled fragments of the format for the constant nodes, 
+     * null if they are set later, when the prefixes are known
+     */
+    ByteEmitter(OutputStream out, Map<Node, byte[]> constants) {
+        this.out = out;
+        this.constants = constants == null ? Collections.emptyMap() : constants;
+    }
+
+    protected final void setConstants(Map<Node, byte[]> constants) {
+        this.constants = constants;
+    }
+
+    /** Compile the fragments for all constant nodes of the vocabulary. */
+    static Map<Node, byte[]> compile(List<Node> nodes, Function<Node, String> encoder) {
+        Map<Node, byte[]> compiled = new HashMap<>();
+        for (Node node : nodes) {
+            String encoded = encoder.apply(node);
+            if (encoded != null) {
+                compiled.put(node, encoded.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return Map.copyOf(compiled);
+    }
+
+    /**
+     * Write the node with the precompiled fragment if it is a constant,
+     * otherwise encode it, and keep that if the same value is likely to come back.
+     */
+    protected final void writeNode(Node node) {
+        byte[] fragment = constants.get(node);
+        if (fragment == null) {
+            fragment = cachedValues.get(node);
+        }
+        if (fragment != null) {
+            write(fragment);
+            return;
+        }
+        if (node.isBlank() || !isCacheable(node) || cachedValues.size() >= MAX_CACHED_VALUES) {
+            encodeNode(node);
+            return;
+        }
+        int start = position;
+        long flushCountAtStart = flushCount;
+        encodeNode(node);
+        if (flushCount == flushCountAtStart) { // all of it is still in the buffer
+            byte[] encoded = new byte[position - start];
+            System.arraycopy(buffer, start, encoded, 0, encoded.length);
+            cachedValues.put(node, encoded);
+        }
+    }
+
+    private static boolean isCacheable(Node node) {
+        return node.isURI()
+                || (node.isLiteral() && node.getLiteralLexicalForm().length() <= MAX_CACHED_VALUE_LENGTH);
+    }
+
+    /** Encode a node that is not constant, in the syntax of the format. */
+    protected abstract void encodeNode(Node node);
+
+    @Override
+    public void base(String base) {
+        // all IRIs are written in full or with a prefix, no need for a base
+    }
+
+    @Override
+    public void quad(Quad quad) {
+        triple(quad.asTriple());
+    }
+
+    //--- buffer
+
+    protected final void write(byte[] bytes) {
+        if (bytes.length > buffer.length - position) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                flushCount++;
+                writeThrough(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /** Write an ASCII character. */
+    protected final void write(char c) {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) c;
+    }
+
+    /** Write the string as UTF-8, replacing the characters the escaper has a replacement for. */
+    protected final void write(String value, Escaper escaper) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = escaper == null ? null : escaper.escape(c);
+            if (replacement != null) {
+                for (int j = 0; j < replacement.length(); j++) {
+                    write(replacement.charAt(j));
+                }
+            } else if (c < 0x80) {
+                write(c);
+            } else {
+                if (buffer.length - position < 4) {
+                    flushBuffer();
+                }
+                if (c < 0x800) {
+                    buffer[position++] = (byte) (0xC0 | (c >> 6));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    buffer[position++] = (byte) '?'; // lone surrogate, same as the JDK encoder does
+                } else {
+                    buffer[position++] = (byte) (0xE0 | (c >> 12));
+                    buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+    }
+
+    /** Write the buffer to the output stream and flush it. */
+    protected final void flush() {
+        flushBuffer();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushBuffer() {
+        if (position > 0) {
+            writeThrough(buffer, position);
+            position = 0;
+            flushCount++;
+        }
+    }
+
+    private void writeThrough(byte[] bytes) {
+        writeThrough(bytes, bytes.length);
+    }
+
+    private void writeThrough(byte[] bytes, int length) {
+        try {
+            out.write(bytes, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Replacement for characters that cannot be written as they are. */
+    interface Escaper {
+        /** The replacement (ASCII only), or null to write the character as it is. */
+        String escape(char c);
+    }
+}
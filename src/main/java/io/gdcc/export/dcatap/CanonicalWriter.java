@@ -0,0 +1,154 @@
+package io.gdcc.export.dcatap;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+/**
+ * Writes a graph as canonical output: the same graph always gives the same bytes,
+ * so the output can be cached, compared and diffed by its hash.
+ *
+ * Blank nodes (creators, contact points, checksums) are skolemized: they get an IRI made from a SHA-256 hash
+ * of their properties, with the IRIs of the blank nodes they refer to in place of those nodes.
+ * So the same author gets the same IRI in every export of every dataset, and equal nodes in one graph become one.
+ * The IRIs are well-known genid IRIs (RDF 1.1, section 3.5) on the host of the file access URL,
+ * like https://demo.dataverse.org/.well-known/genid/{hash}.
+ *
+ * Then the triples are sorted by subject, predicate and object, compared in their N-Triples form,
+ * and written in that order with the streaming writers, or with the JSON-LD writer, which keeps it.
+ * Prefixes are written sorted by name.
+ */
+final class CanonicalWriter {
+    static final String GENID_PATH = "/.well-known/genid/";
+
+    private final String genidBase;
+    private final Map<Node, List<Triple>> descriptions = new HashMap<>();
+    private final Map<Node, Node> skolems = new HashMap<>();
+
+    private CanonicalWriter(String genidBase) {
+        this.genidBase = genidBase;
+    }
+
+    /**
+     * Write the graph to the stream, or as JSON-LD to the output stream when there is no stream for the format.
+     */
+    static void write(Graph graph, StreamRDF stream, OutputStream outputStream, ExportConfig config) {
+        List<Triple> triples = canonicalTriples(graph, genidBase(config));
+        if (stream == null) {
+            JsonLdWriter.write(triples, outputStream);
+            return;
+        }
+        stream.start();
+        new TreeMap<>(graph.getPrefixMapping().getNsPrefixMap()).forEach(stream::prefix);
+        triples.forEach(stream::triple);
+        stream.finish();
+    }
+
+    /** Where the skolem IRIs are: the genid path on the host of the file access URL. */
+    static String genidBase(ExportConfig config) {
+        return URI.create(config.getFileAccessBaseUrl()).resolve(GENID_PATH).toString();
+    }
+
+    /** The triples of the graph with the blank nodes skolemized, sorted and without duplicates. */
+    static List<Triple> canonicalTriples(Graph graph, String genidBase) {
+        CanonicalWriter writer = new CanonicalWriter(genidBase);
+        List<Triple> triples = new ArrayList<>();
+        ExtendedIterator<Triple> found = graph.find();
+        try {
+            while (found.hasNext()) {
+                Triple triple = found.next();
+                triples.add(triple);
+                if (triple.getSubject().isBlank()) {
+                    writer.descriptions.computeIfAbsent(triple.getSubject(), subject -> new ArrayList<>()).add(triple);
+                }
+            }
+        } finally {
+            found.close();
+        }
+
+        List<Entry> entries = new ArrayList<>(triples.size());
+        for (Triple triple : triples) {
+            entries.add(new Entry(Triple.create(writer.skolem(triple.getSubject(), new HashSet<>()),
+                    triple.getPredicate(), writer.skolem(triple.getObject(), new HashSet<>()))));
+        }
+        entries.sort(null);
+        List<Triple> sorted = new ArrayList<>(entries.size());
+        Entry previous = null;
+        for (Entry entry : entries) {
+            // the nodes that became one have the same triples
+            if (previous == null || previous.compareTo(entry) != 0) {
+                sorted.add(entry.triple);
+            }
+            previous = entry;
+        }
+        return sorted;
+    }
+
+    // The skolem IRI of a blank node, other nodes stay as they are; null for a node in a cycle
+    private Node skolem(Node node, Set<Node> visiting) {
+        if (!node.isBlank()) {
+            return node;
+        }
+        Node iri = skolems.get(node);
+        if (iri != null) {
+            return iri;
+        }
+        if (!visiting.add(node)) {
+            return null;
+        }
+        List<String> properties = new ArrayList<>();
+        for (Triple triple : descriptions.getOrDefault(node, List.of())) {
+            Node object = skolem(triple.getObject(), visiting);
+            properties.add(NodeFmtLib.strNT(triple.getPredicate()) + ' '
+                    + (object != null ? NodeFmtLib.strNT(object) : "[]"));
+        }
+        visiting.remove(node);
+        properties.sort(null);
+        iri = NodeFactory.createURI(genidBase + sha256(String.join("\n", properties)));
+        skolems.put(node, iri);
+        return iri;
+    }
+
+    /** A triple with its nodes in N-Triples form, to sort on. */
+    private static final class Entry implements Comparable<Entry> {
+        final Triple triple;
+        final String subject;
+        final String predicate;
+        final String object;
+
+        Entry(Triple triple) {
+            this.triple = triple;
+            this.subject = NodeFmtLib.strNT(triple.getSubject());
+            this.predicate = NodeFmtLib.strNT(triple.getPredicate());
+            this.object = NodeFmtLib.strNT(triple.getObject());
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int compared = subject.compareTo(other.subject);
+            if (compared == 0) {
+                compared = predicate.compareTo(other.predicate);
+            }
+            return compared != 0 ? compared : object.compareTo(other.object);
+        }
+    }
+
+    private static String sha256(String value) {
+        return HexFormat.of().formatHex(DatasetFingerprint.sha256().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+}
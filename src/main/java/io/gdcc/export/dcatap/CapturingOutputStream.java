@@ -0,0 +1,49 @@
+package io.gdcc.export.dcatap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes through to the wrapped stream and keeps a copy of the bytes, up to a limit.
+ * Beyond the limit the copy is dropped, so a huge export is still streamed without being kept in memory.
+ */
+class CapturingOutputStream extends FilterOutputStream {
+    private final long limit;
+    private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+    CapturingOutputStream(OutputStream out, long limit) {
+        super(out);
+        this.limit = limit;
+    }
+
+    /** The bytes written, or null if there were more than the limit. */
+    byte[] getCaptured() {
+        return copy == null ? null : copy.toByteArray();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        if (copy != null) {
+            copy.write(b);
+            checkLimit();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        if (copy != null) {
+            copy.write(b, off, len);
+            checkLimit();
+        }
+    }
+
+    private void checkLimit() {
+        if (copy.size() > limit) {
+            copy = null;
+        }
+    }
+}
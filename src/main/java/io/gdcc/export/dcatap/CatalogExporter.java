@@ -0,0 +1,168 @@
+package io.gdcc.export.dcatap;
+
+import io.gdcc.spi.export.ExportDataProvider;
+import io.gdcc.spi.export.ExportException;
+import jakarta.json.JsonObject;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+
+/**
+ * Exports many datasets as one dcat:Catalog, for harvesters that want the whole installation in one document.
+ *
+ * The datasets are mapped one at a time and their triples are written right away,
+ * so memory does not grow with the number of datasets; the datasets are taken from a lazy Iterable the same way.
+ * What the datasets share is written once: a contact point or creator that was already written
+ * is referenced instead (see SharedNodeStream), and each license gets its description
+ * (a dct:LicenseDocument with its name) only the first time it is used.
+ *
+ * Only the streaming formats can be used, JSON-LD needs the whole graph.
+ * In N-Quads every dataset is in its own graph, as in the single dataset export,
+ * and the catalog is in the default graph; nothing is shared between the graphs there.
+ *
+ * A dataset whose JSON cannot be fetched is skipped and recorded in the report.
+ * A failure while writing stops the export, the output is incomplete by then.
+ */
+public class CatalogExporter {
+    private static final Logger logger = Logger.getLogger(CatalogExporter.class.getCanonicalName());
+
+    private final DCATAPExporter exporter;
+    private final String catalogUrl;
+    private final String title;
+    private final String description;
+
+    /**
+     * @param exporter maps the datasets
+     * @param catalogUrl the IRI of the catalog, for instance the URL of the installation
+     * @param title the title of the catalog
+     * @param description the description of the catalog
+     */
+    public CatalogExporter(DCATAPExporter exporter, String catalogUrl, String title, String description) {
+        this.exporter = exporter;
+        this.catalogUrl = catalogUrl;
+        this.title = title;
+        this.description = description;
+    }
+
+    /**
+     * Writes the catalog with all datasets to the output stream, in the format of the configuration.
+     * The output stream is not closed.
+     */
+    public BulkExportReport export(Iterable<ExportDataProvider> datasets, OutputStream outputStream,
+            ExportConfig config) throws ExportException {
+        ExportFormat format = config.getFormat();
+        if (!DCATAPExporter.canStream(format)) {
+            throw new ExportException("A catalog cannot be written as " + format + ", use one of the streaming formats");
+        }
+        // a catalog has all distributions of all datasets
+        ExportConfig datasetConfig = config.isPaged() ? config.withPaging(0, 1) : config;
+        String lang = config.getMetadataLanguage();
+        long succeeded = 0;
+        List<BulkExportReport.Failure> failures = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+            OutputStream encodedStream = DCATAPExporter.encode(countingStream, config);
+            boolean quads = format == ExportFormat.NQUADS;
+            StreamRDF stream = quads
+                    ? new NTriplesEmitter(encodedStream)
+                    : new SharedNodeStream(exporter.createWriterStream(encodedStream, format));
+            Model model = ModelFactory.createModelForGraph(new StreamRDFGraph(stream));
+            Set<String> licenses = seenSet(SharedNodeStream.DEFAULT_MAX_SHARED);
+
+            stream.start();
+            exporter.setNsPrefixes(model);
+            Resource catalog = model.createResource(catalogUrl);
+            catalog.addProperty(Vocab.RDF.type, Vocab.DCAT.Catalog);
+            catalog.addProperty(Vocab.DCT.title, model.createLiteral(title, lang));
+            catalog.addProperty(Vocab.DCT.description, model.createLiteral(description, lang));
+
+            int index = 0;
+            for (ExportDataProvider dataProvider : datasets) {
+                index++;
+                JsonObject datasetJson;
+                try {
+                    datasetJson = dataProvider.getDatasetJson();
+                } catch (Exception e) {
+                    failures.add(new BulkExportReport.Failure("dataset " + index, e));
+                    continue;
+                }
+                // in N-Quads the graph is named after the dataset, so every dataset needs its own
+                StreamRDF datasetStream = quads
+                        ? new DatasetGraphStream(new DatasetStream(stream))
+                        : new DatasetStream(stream);
+                datasetStream.start();
+                exporter.mapDatasetJson(
+                        ModelFactory.createModelForGraph(new StreamRDFGraph(datasetStream)), datasetJson, datasetConfig);
+                datasetStream.finish();
+                addLicenseDocument(model, datasetJson, licenses);
+                String persistentURL = datasetJson.getString("persistentUrl", "");
+                catalog.addProperty(Vocab.DCAT.dataset, model.createResource(persistentURL));
+                succeeded++;
+            }
+            stream.finish();
+            DCATAPExporter.finishEncoding(encodedStream);
+            outputStream.flush();
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            return new BulkExportReport(succeeded, failures, countingStream.getCount(), elapsed);
+        } catch (Exception ex) {
+            logger.log(Level.SEVERE, "DCAT-AP catalog export failed", ex);
+            throw new ExportException("Unknown exception caught during catalog export: " + ex, ex);
+        }
+    }
+
+    // The license of the dataset, described once for the whole catalog
+    private static void addLicenseDocument(Model model, JsonObject datasetJson, Set<String> licenses) {
+        JsonObject licenseObj = datasetJson.getJsonObject("datasetVersion").getJsonObject("license");
+        if (licenseObj == null) {
+            return;
+        }
+        String licenseURI = licenseObj.getString("uri", "");
+        String licenseName = licenseObj.getString("name", "");
+        if (licenseURI.isEmpty() || !licenses.add(licenseURI)) {
+            return;
+        }
+        Resource license = Vocab.sharedResource(licenseURI).inModel(model);
+        license.addProperty(Vocab.RDF.type, Vocab.DCT.LicenseDocument);
+        if (!licenseName.isEmpty()) {
+            license.addProperty(Vocab.RDFS.label, licenseName);
+        }
+    }
+
+    // Remembers at most max values, the least recently added are forgotten first
+    private static Set<String> seenSet(int max) {
+        return Collections.newSetFromMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > max;
+            }
+        });
+    }
+
+    /** The part of the catalog stream for one dataset, the catalog itself starts and finishes the stream. */
+    private static class DatasetStream extends StreamRDFWrapper {
+        DatasetStream(StreamRDF other) {
+            super(other);
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.gdcc.export.dcatap;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Counts the bytes written to the wrapped stream.
+ */
+class CountingOutputStream extends FilterOutputStream {
+    private long count = 0;
+
+    CountingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        // FilterOutputStream would write byte by byte
+        out.write(b, off, len);
+        count += len;
+    }
+}
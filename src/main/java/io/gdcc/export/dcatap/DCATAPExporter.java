@@ -5,19 +5,38 @@ import io.gdcc.spi.export.ExportDataProvider;
 import io.gdcc.spi.export.ExportException;
 import io.gdcc.spi.export.Exporter;
 import io.gdcc.spi.export.XMLExporter;
-import jakarta.json.Json;
 import jakarta.json.JsonArray;
 import jakarta.json.JsonObject;
-import jakarta.ws.rs.core.MediaType;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.rdf.model.Literal;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWriter;
 // Maybe use vocabs, but for now just use strings which I like more
 //import org.apache.jena.vocabulary.RDFS;
 
@@ -32,25 +51,88 @@ import org.apache.jena.rdf.model.Resource;
 @AutoService(Exporter.class)
 public class DCATAPExporter implements XMLExporter {
 //public class DCATAPExporter implements Exporter { 
-    static String DCAT = "http://www.w3.org/ns/dcat#";
-    static String DCT = "http://purl.org/dc/terms/";
-    static String RDFS = "http://www.w3.org/2000/01/rdf-schema#";
-    static String DCATAP = "http://data.europa.eu/r5r/";
-    static String VCARD = "http://www.w3.org/2006/vcard/ns#";
-    static String FOAF = "http://xmlns.com/foaf/0.1/";
-    static String SPDX = "http://spdx.org/rdf/terms#";
-    static String RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+    private static final Logger logger = Logger.getLogger(DCATAPExporter.class.getCanonicalName());
+
+    static final String DCAT = "http://www.w3.org/ns/dcat#";
+    static final String DCT = "http://purl.org/dc/terms/";
+    static final String RDFS = "http://www.w3.org/2000/01/rdf-schema#";
+    static final String DCATAP = "http://data.europa.eu/r5r/";
+    static final String VCARD = "http://www.w3.org/2006/vcard/ns#";
+    static final String FOAF = "http://xmlns.com/foaf/0.1/";
+    static final String SPDX = "http://spdx.org/rdf/terms#";
+    static final String RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+    static final String HYDRA = "http://www.w3.org/ns/hydra/core#";
+    static final String ADMS = "http://www.w3.org/ns/adms#";
+    static final String SKOS = "http://www.w3.org/2004/02/skos/core#";
+    static final String GSP = "http://www.opengis.net/ont/geosparql#";
     
-    // Use this for testing different output formats ONLY!
-    // unfortunately, it is just a string, so no enum or such
-    private String outputLang = ""; // default output format (RDF/XML) if empyty!
+    public DCATAPExporter() {
+        // Dataverse creates the exporter when it loads the plugins, long before the first export
+        Warmup.startIfEnabled();
+    }
+
+    /** The warm-up started when the first exporter was created, null if it is not enabled. */
+    public static Warmup getWarmup() {
+        return Warmup.getStarted();
+    }
+
+    // The configuration used when Dataverse calls exportDataset, the one of the installation, in RDF/XML.
+    // It is immutable, the setters replace it, so exports that are already running are not affected. 
+    // Use the setters for testing different output formats ONLY!
+    // For anything else pass the configuration with the call.
+    private volatile ExportConfig config = ExportConfig.configured();
+
+    public ExportConfig getConfig() {
+        return config;
+    }
 
     public String getOutputLang() {
-        return outputLang;
+        return config.getFormat().getOutputLang();
     }
 
     public void setOutputLang(String outputLang) {
-        this.outputLang = outputLang;
+        this.config = config.withFormat(ExportFormat.fromOutputLang(outputLang));
+    }
+
+    public boolean isStreaming() {
+        return config.isStreaming();
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.config = config.withStreaming(streaming);
+    }
+
+    // Optional cache of the serialized exports, null if caching is not enabled
+    private volatile ExportCache exportCache = ExportCache.shared();
+
+    public ExportCache getExportCache() {
+        return exportCache;
+    }
+
+    public void setExportCache(ExportCache exportCache) {
+        this.exportCache = exportCache;
+    }
+
+    // Short-lived store of the mapped graphs, shared with the exporters of the other formats, null if disabled
+    private volatile MappedGraphCache graphCache = MappedGraphCache.shared();
+
+    // Chooses between in-memory, streaming and on disk for each export
+    private volatile ExportPlanner planner = ExportPlanner.fromSystemProperties();
+
+    ExportPlanner getPlanner() {
+        return planner;
+    }
+
+    void setPlanner(ExportPlanner planner) {
+        this.planner = planner;
+    }
+
+    MappedGraphCache getGraphCache() {
+        return graphCache;
+    }
+
+    void setGraphCache(MappedGraphCache graphCache) {
+        this.graphCache = graphCache;
     }
     
     /**
@@ -106,24 +188,15 @@ public class DCATAPExporter implements XMLExporter {
      */
     @Override
     public String getMediaType() {
-        String type = MediaType.APPLICATION_XML; // default RDF/XML
-        // Note that we need  XML in the OAI-PMH harvesting output!
-        
-        switch (outputLang) {
-            case "RDF/XML":
-                type = MediaType.APPLICATION_XML;
-                break;
-            case "TURTLE":
-                type = MediaType.TEXT_PLAIN; // there is nothing like text/turtle in MediaType!
-                break;
-            case "JSON-LD":
-                type = MediaType.APPLICATION_JSON;
-                break;
-            default:
-                // default to RDF/XML
-                break;
-        }
-        return type;
+        return config.getFormat().getMediaType();
+    }
+
+    /** 
+     * The content encoding that goes with the media type, 'gzip' when compressed, 
+     * null when the output is not encoded.
+     */
+    public String getContentEncoding() {
+        return config.getContentEncoding();
     }
     
     /**
@@ -133,17 +206,76 @@ public class DCATAPExporter implements XMLExporter {
     @Override
     public void exportDataset(ExportDataProvider dataProvider, OutputStream outputStream)
             throws ExportException {
+        exportDataset(dataProvider, outputStream, config);
+    }
+
+    /**
+     * Export with the given configuration instead of the one of this exporter. 
+     * This is safe to call from several threads at the same time.
+     */
+    public void exportDataset(ExportDataProvider dataProvider, OutputStream outputStream, ExportConfig config)
+            throws ExportException {
+        export(dataProvider, outputStream, config, false);
+    }
+
+    /**
+     * Export, and compute the SHA-256 digest of the bytes while they are written, 
+     * to answer conditional requests (see ExportDigest) without reading the output again.
+     */
+    public ExportDigest exportDatasetWithDigest(ExportDataProvider dataProvider, OutputStream outputStream, 
+            ExportConfig config) throws ExportException {
+        MessageDigest digest = DatasetFingerprint.sha256();
+        String fingerprint = export(dataProvider, new DigestOutputStream(outputStream, digest), config, true);
+        return new ExportDigest(ExportDigest.etag(fingerprint, config), digest.digest());
+    }
+
+    /**
+     * The ETag an export of the dataset with this configuration gets, see ExportDigest.
+     * This only needs the dataset JSON, the dataset is not mapped or serialized.
+     */
+    public String getETag(ExportDataProvider dataProvider, ExportConfig config) {
+        return ExportDigest.etag(DatasetFingerprint.of(dataProvider.getDatasetJson(), config), config);
+    }
+
+    // Returns the fingerprint of the dataset, when it was needed for the cache or asked for, null otherwise
+    private String export(ExportDataProvider dataProvider, OutputStream outputStream, ExportConfig config,
+            boolean withFingerprint) throws ExportException {
+        ExportMetrics.Recording recording = ExportMetrics.get().start(config);
+        String fingerprint = null;
         try {
+            recording.begin(ExportMetrics.Phase.FETCH);
             JsonObject datasetJson = dataProvider.getDatasetJson();
+            recording.end(ExportMetrics.Phase.FETCH);
+            recording.setDataset(datasetJson.getString("persistentUrl", "(no persistentUrl)"));
             // Note that we could try to use some of those other providers to retrieve metadata as well
             // ORE might be interesting, but for now stick to the JSON only
             
-            Model model = createRDFModelFromDatasetJson(datasetJson);
-            
-            if ( outputLang.isEmpty()) {
-                model.write(outputStream);
+            // the cache has the uncompressed output, so compression goes around it
+            CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+            OutputStream encodedStream = encode(countingStream, config);
+            ExportCache cache = exportCache;
+            if (cache != null || withFingerprint) {
+                fingerprint = DatasetFingerprint.of(datasetJson, config);
+            }
+            if (cache == null) {
+                writeDatasetJson(datasetJson, encodedStream, config);
             } else {
-                model.write(outputStream, outputLang);
+                // the same dataset version is exported over and over again, 
+                // by harvesters, downloads and different formats
+                byte[] cached = cache.get(fingerprint);
+                if (cached != null) {
+                    recording.begin(ExportMetrics.Phase.SERIALIZE);
+                    encodedStream.write(cached);
+                    recording.end(ExportMetrics.Phase.SERIALIZE);
+                } else {
+                    CapturingOutputStream capturingStream = 
+                            new CapturingOutputStream(encodedStream, cache.getMaxEntryBytes());
+                    writeDatasetJson(datasetJson, capturingStream, config);
+                    byte[] exported = capturingStream.getCaptured();
+                    if (exported != null) {
+                        cache.put(fingerprint, exported);
+                    }
+                }
             }
             
             // Note: how could we support these different output types using this same exporter?
@@ -169,21 +301,394 @@ public class DCATAPExporter implements XMLExporter {
             //model.write(outputStream, "RDF/XML"); // when for OAI harvesting, XML fits best
             //model.write(outputStream, "TURTLE"); // human-readable text format, best for debugging
             
+            recording.begin(ExportMetrics.Phase.FLUSH);
+            finishEncoding(encodedStream);
             // Flush the output stream - The output stream is automatically closed by
             // Dataverse and should not be closed in the Exporter.
             outputStream.flush();
+            recording.end(ExportMetrics.Phase.FLUSH);
+            recording.setBytes(countingStream.getCount());
+            return fingerprint;
         } catch (Exception ex) {
-            System.out.println("Exception caught in DCAT-AP exporter. Printing stacktrace...");
-            ex.printStackTrace();
             // If anything goes wrong, an Exporter should throw an ExportException.
-            throw new ExportException("Unknown exception caught during export: " + ex);
+            throw failed(recording, ex);
+        } finally {
+            recording.finish();
         }
     }
     
+    /**
+     * Export from the serialized dataset JSON, instead of the JsonObject from the ExportDataProvider.
+     * The JSON is read as a stream and the files are mapped one by one, 
+     * so the JSON for all the files is never in memory at once.
+     * Together with streaming this keeps memory use flat for large datasets.
+     */
+    public void exportDataset(InputStream datasetJsonStream, OutputStream outputStream)
+            throws ExportException {
+        exportDataset(datasetJsonStream, outputStream, config);
+    }
+
+    public void exportDataset(InputStream datasetJsonStream, OutputStream outputStream, ExportConfig config)
+            throws ExportException {
+        // reading the JSON is part of mapping here, so there is no fetch phase
+        ExportMetrics.Recording recording = ExportMetrics.get().start(config);
+        try {
+            Reader reader = new InputStreamReader(datasetJsonStream, StandardCharsets.UTF_8);
+            CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+            OutputStream encodedStream = encode(countingStream, config);
+            write(model -> mapDatasetJson(model, reader, config), encodedStream, config);
+            recording.begin(ExportMetrics.Phase.FLUSH);
+            finishEncoding(encodedStream);
+            outputStream.flush();
+            recording.end(ExportMetrics.Phase.FLUSH);
+            recording.setBytes(countingStream.getCount());
+        } catch (Exception ex) {
+            throw failed(recording, ex);
+        } finally {
+            recording.finish();
+        }
+    }
+
+    // Records and logs the failure, and wraps it in the ExportException that goes back to Dataverse
+    private static ExportException failed(ExportMetrics.Recording recording, Exception ex) {
+        recording.fail(ex);
+        logger.log(Level.SEVERE, "DCAT-AP export of " + recording.getDataset() + " failed", ex);
+        return new ExportException("Unknown exception caught during export: " + ex, ex);
+    }
+
+    /**
+     * The stream to write the output to, compressed on the fly when gzip is configured.
+     * Call finishEncoding when done, that does not close the output stream.
+     */
+    static OutputStream encode(OutputStream outputStream, ExportConfig config) throws IOException {
+        if (config.isGzip()) {
+            return new GZIPOutputStream(outputStream, 64 * 1024);
+        }
+        return outputStream;
+    }
+
+    static void finishEncoding(OutputStream encodedStream) throws IOException {
+        if (encodedStream instanceof GZIPOutputStream) {
+            ((GZIPOutputStream) encodedStream).finish();
+        }
+    }
+
+    /**
+     * Map the dataset JSON and write it in the output language.
+     * Large datasets get their files mapped in parallel, see ParallelExport.
+     */
+    void writeDatasetJson(JsonObject datasetJson, OutputStream outputStream, ExportConfig config) 
+            throws IOException {
+        JsonArray files = datasetJson.getJsonObject("datasetVersion").getJsonArray("files");
+        ExportMetrics.Recording recording = ExportMetrics.current();
+        if (config.isPaged()) {
+            // a page is bounded in size, so there is nothing to plan, share or parallelize
+            int[] range = pageRange(files.size(), config);
+            if (recording != null) {
+                recording.setFiles(range[1] - range[0]);
+            }
+            ExportConfig pageConfig = config;
+            write(model -> mapDatasetPage(model, datasetJson, pageConfig), outputStream, config);
+            return;
+        }
+        if (recording != null) {
+            recording.setFiles(files.size());
+        }
+        if (config.isCanonical()) {
+            // always in memory and on this thread, the whole graph is needed, see CanonicalWriter
+            ExportConfig canonicalConfig = config;
+            write(model -> mapDatasetJson(model, datasetJson, canonicalConfig), outputStream, config);
+            return;
+        }
+        ExportPlanner.Plan plan = planner.plan(datasetJson, config, canStream(config.getFormat()));
+        if (recording != null) {
+            recording.setStrategy(plan.getStrategy().name());
+        }
+        if (plan.getStrategy() == ExportPlanner.Strategy.DISK) {
+            new DiskExport(this).write(datasetJson, outputStream, config);
+            return;
+        }
+        if (plan.getStrategy() == ExportPlanner.Strategy.STREAMING) {
+            config = config.withStreaming(true);
+        }
+        MappedGraphCache cache = graphCache;
+        ExportConfig exportConfig = config;
+        if (files.size() >= config.getParallelThreshold()) {
+            new ParallelExport(this).write(datasetJson, outputStream, config);
+        } else if (cache == null) {
+            write(model -> mapDatasetJson(model, datasetJson, exportConfig), outputStream, config);
+        } else {
+            // the other formats of the same version are probably exported right after this one
+            write(model -> mapDatasetJson(model, datasetJson, exportConfig),
+                    () -> cache.get(DatasetFingerprint.ofVersion(datasetJson, exportConfig), 
+                            () -> createRDFModelFromDatasetJson(datasetJson, exportConfig)),
+                    outputStream, config);
+        }
+    }
+
+    /**
+     * Let the mapper add the triples to a model and write it in the output language.
+     * When streaming, the triples are written as soon as they are added,
+     * the formats that are always streamed are always written that way.
+     */
+    void write(Consumer<Model> mapper, OutputStream outputStream, ExportConfig config) {
+        write(mapper, () -> {
+            Model model = ModelFactory.createDefaultModel();
+            mapper.accept(model);
+            return model;
+        }, outputStream, config);
+    }
+
+    /**
+     * Same as above, but when the model is needed as a whole it is taken from the supplier, 
+     * which can return a shared one.
+     */
+    private void write(Consumer<Model> mapper, Supplier<Model> modelSupplier, OutputStream outputStream, 
+            ExportConfig config) {
+        // canonical output needs the complete model, to name the blank nodes and sort the triples
+        boolean streaming = !config.isCanonical() && (config.isStreaming() || config.getFormat().isAlwaysStreamed());
+        StreamRDF stream = streaming ? createWriterStream(outputStream, config.getFormat()) : null;
+        ExportMetrics.Recording recording = ExportMetrics.current();
+        if (stream != null) {
+            if (recording != null) {
+                recording.begin(ExportMetrics.Phase.SERIALIZE);
+            }
+            long triples = writeRDFStream(mapper, stream);
+            if (recording != null) {
+                recording.end(ExportMetrics.Phase.SERIALIZE);
+                recording.setTriples(triples);
+            }
+        } else {
+            if (recording != null) {
+                recording.begin(ExportMetrics.Phase.MAP);
+            }
+            Model model = modelSupplier.get();
+            if (recording != null) {
+                recording.end(ExportMetrics.Phase.MAP);
+                recording.setTriples(model.size());
+                recording.begin(ExportMetrics.Phase.SERIALIZE);
+            }
+            if (config.isCanonical()) {
+                CanonicalWriter.write(model.getGraph(), createWriterStream(outputStream, config.getFormat()),
+                        outputStream, config);
+            } else {
+                writeModel(model, outputStream, config.getFormat());
+            }
+            if (recording != null) {
+                recording.end(ExportMetrics.Phase.SERIALIZE);
+            }
+        }
+    }
+
+    /** Write the complete model, JSON-LD with our own writer and context, the rest with the Jena writers. */
+    static void writeModel(Model model, OutputStream outputStream, ExportFormat format) {
+        if (format == ExportFormat.JSON_LD) {
+            JsonLdWriter.write(model.getGraph(), outputStream);
+        } else {
+            model.write(outputStream, format.getOutputLang());
+        }
+    }
+
+    /** Whether createWriterStream has a streaming writer for the format. */
+    static boolean canStream(ExportFormat format) {
+        // JSON-LD needs the whole graph, to build the JSON document
+        return format != ExportFormat.JSON_LD;
+    }
+
+    /**
+     * Create a streaming writer for the given output format, 
+     * or null if that format needs the complete model before it can be written.
+     */
+    StreamRDF createWriterStream(OutputStream outputStream, ExportFormat format) {
+        switch (format) {
+            case RDF_XML:
+                return new StreamRDFXMLWriter(outputStream);
+            case TURTLE:
+                // subject grouped Turtle, as close to the pretty Turtle as streaming allows
+                return new TurtleEmitter(outputStream);
+            case NTRIPLES:
+                return new NTriplesEmitter(outputStream);
+            case NQUADS:
+                return new DatasetGraphStream(new NTriplesEmitter(outputStream));
+            case RDF_THRIFT:
+                return StreamRDFWriter.getWriterStream(outputStream, RDFFormat.RDF_THRIFT);
+            case RDF_PROTO:
+                return StreamRDFWriter.getWriterStream(outputStream, RDFFormat.RDF_PROTO);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Map the dataset and push the triples to the stream as soon as they are created.
+     * Nothing is kept in memory, so this works for any number of files.
+     * Returns the number of triples written.
+     */
+    long writeRDFStream(Consumer<Model> mapper, StreamRDF stream) {
+        StreamRDFGraph graph = new StreamRDFGraph(stream);
+        Model model = ModelFactory.createModelForGraph(graph);
+        stream.start();
+        mapper.accept(model);
+        stream.finish();
+        return graph.getTripleCount();
+    }
+
     Model createRDFModelFromDatasetJson(JsonObject datasetJson) {
+        return createRDFModelFromDatasetJson(datasetJson, config);
+    }
+
+    Model createRDFModelFromDatasetJson(JsonObject datasetJson, ExportConfig config) {
         Model model = ModelFactory.createDefaultModel();
+        mapDatasetJson(model, datasetJson, config);
+        return model;
+    }
+
+    /**
+     * Adds the DCAT-AP for the dataset to the given model. 
+     * The model can be a normal in-memory model or a streaming one, 
+     * so only add to it and never query it!
+     * The file access URL and the language of the metadata are taken from the configuration.
+     */
+    void mapDatasetJson(Model model, JsonObject datasetJson, ExportConfig config) {
         // The RDF stuff using Apache Jena
+        setNsPrefixes(model);
+        Resource datasetModel = mapDatasetProperties(model, datasetJson, config);
+
+        // Note: we could try to determine dataset license, and somehow add it to each file distribution as well
+        // we have the name and the uri in the license object, but can we map that?
+        // just the URI, but note that we do not have license on dataset level, only on file level
+        JsonObject datasetVersion = datasetJson.getJsonObject("datasetVersion");
+        JsonObject licenseObj = datasetVersion.getJsonObject("license");
+        
+        //---
+        // DCAT-AP Dataset Property: dataset distribution
+        // find any files and add them as distributions
+        // Note that dcat-ap there should be at least one file/distribution, 
+        // but Dataverse does not force that!
+        JsonArray files = datasetVersion.getJsonArray("files");
+        for (int i = 0; i < files.size(); i++) {
+            addFileDistribution(model, datasetModel, files.getJsonObject(i), licenseObj, config);
+        }
+    }
 
+    /**
+     * Adds one page of the dataset: the dataset properties (on the first page only),
+     * the distributions of the files of the page, and the Hydra links to the other pages.
+     * Only the files of the page are mapped, so any page is as cheap as the first one.
+     */
+    void mapDatasetPage(Model model, JsonObject datasetJson, ExportConfig config) {
+        setNsPrefixes(model);
+        model.setNsPrefix("hydra", HYDRA);
+        JsonObject datasetVersion = datasetJson.getJsonObject("datasetVersion");
+        JsonObject licenseObj = datasetVersion.getJsonObject("license");
+        JsonArray files = datasetVersion.getJsonArray("files");
+        int[] range = pageRange(files.size(), config);
+        Resource datasetModel = config.getPage() == 1
+                ? mapDatasetProperties(model, datasetJson, config)
+                : model.createResource(datasetJson.getString("persistentUrl", ""));
+        for (int i = range[0]; i < range[1]; i++) {
+            addFileDistribution(model, datasetModel, files.getJsonObject(i), licenseObj, config);
+        }
+        addPageLinks(model, datasetModel, files.size(), config);
+    }
+
+    static int pageCount(int fileCount, int pageSize) {
+        // a dataset without files still has a first page, with the dataset properties
+        return Math.max(1, (fileCount + pageSize - 1) / pageSize);
+    }
+
+    /** The index of the first file of the page and the one after the last. */
+    static int[] pageRange(int fileCount, ExportConfig config) {
+        int pages = pageCount(fileCount, config.getPageSize());
+        if (config.getPage() > pages) {
+            throw new IllegalArgumentException("Page " + config.getPage() + " of " + pages 
+                    + " pages of " + config.getPageSize() + " files");
+        }
+        int from = (config.getPage() - 1) * config.getPageSize();
+        return new int[] {from, Math.min(fileCount, from + config.getPageSize())};
+    }
+
+    /**
+     * Adds the Hydra view of the page to the dataset, with the links to the first, previous, next and last page,
+     * and the total number of distributions.
+     */
+    void addPageLinks(Model model, Resource datasetModel, int fileCount, ExportConfig config) {
+        String persistentURL = datasetModel.getURI();
+        int page = config.getPage();
+        int pages = pageCount(fileCount, config.getPageSize());
+        Resource view = model.createResource(config.pageUrl(persistentURL, page));
+        view.addProperty(Vocab.RDF.type, Vocab.HYDRA.PartialCollectionView);
+        view.addProperty(Vocab.HYDRA.first, model.createResource(config.pageUrl(persistentURL, 1)));
+        if (page > 1) {
+            view.addProperty(Vocab.HYDRA.previous, model.createResource(config.pageUrl(persistentURL, page - 1)));
+        }
+        if (page < pages) {
+            view.addProperty(Vocab.HYDRA.next, model.createResource(config.pageUrl(persistentURL, page + 1)));
+        }
+        view.addProperty(Vocab.HYDRA.last, model.createResource(config.pageUrl(persistentURL, pages)));
+        datasetModel.addProperty(Vocab.HYDRA.view, view);
+        datasetModel.addProperty(Vocab.HYDRA.totalItems, 
+                model.createTypedLiteral(Integer.toString(fileCount), XSDDatatype.XSDinteger));
+    }
+
+    /**
+     * Same as mapDatasetJson, but reads the dataset JSON as a stream of parser events.
+     * Each file is mapped as soon as it has been read, 
+     * so the files array is never completely in memory. 
+     */
+    void mapDatasetJson(Model model, Reader datasetJsonReader, ExportConfig config) {
+        setNsPrefixes(model);
+        if (config.isPaged()) {
+            model.setNsPrefix("hydra", HYDRA);
+        }
+        DatasetJsonStreamReader reader = new DatasetJsonStreamReader();
+        // files need the persistentUrl and license, in the Dataverse JSON these come before the files.
+        // If they don't, keep the files until the end
+        List<JsonObject> pendingFiles = new ArrayList<>();
+        // when paged, the files of the other pages are read, but not mapped
+        int[] fileCount = {0};
+        JsonObject datasetJson = reader.read(datasetJsonReader, fileObj -> {
+            int index = fileCount[0]++;
+            if (config.isPaged() && index / config.getPageSize() != config.getPage() - 1) {
+                return;
+            }
+            JsonValue persistentURL = reader.getDatasetValue("persistentUrl");
+            if (persistentURL instanceof JsonString && reader.isLicenseKnown()) {
+                JsonValue licenseObj = reader.getDatasetVersionValue("license");
+                addFileDistribution(
+                        model,
+                        model.createResource(((JsonString) persistentURL).getString()),
+                        fileObj,
+                        licenseObj instanceof JsonObject ? (JsonObject) licenseObj : null,
+                        config);
+            } else {
+                pendingFiles.add(fileObj);
+            }
+        });
+        ExportMetrics.Recording recording = ExportMetrics.current();
+        if (recording != null) {
+            recording.setDataset(datasetJson.getString("persistentUrl", "(no persistentUrl)"));
+        }
+        Resource datasetModel;
+        if (config.isPaged()) {
+            // the number of files is only known now
+            pageRange(fileCount[0], config);
+            datasetModel = config.getPage() == 1
+                    ? mapDatasetProperties(model, datasetJson, config)
+                    : model.createResource(datasetJson.getString("persistentUrl", ""));
+        } else {
+            datasetModel = mapDatasetProperties(model, datasetJson, config);
+        }
+        JsonObject licenseObj = datasetJson.getJsonObject("datasetVersion").getJsonObject("license");
+        for (JsonObject fileObj : pendingFiles) {
+            addFileDistribution(model, datasetModel, fileObj, licenseObj, config);
+        }
+        if (config.isPaged()) {
+            addPageLinks(model, datasetModel, fileCount[0], config);
+        }
+    }
+
+    void setNsPrefixes(Model model) {
         // make the model use prefixes
         model.setNsPrefix("dcat", DCAT);
         model.setNsPrefix("dct", DCT);
@@ -192,8 +697,17 @@ public class DCATAPExporter implements XMLExporter {
         model.setNsPrefix("vcard", VCARD);
         model.setNsPrefix("foaf", FOAF);
         model.setNsPrefix("spdx", SPDX);
+        model.setNsPrefix("adms", ADMS);
+        model.setNsPrefix("skos", SKOS);
         // model.setNsPrefix("rdf", RDF); // we do not need to define rdf prefix ourselves
-        
+    }
+
+    /**
+     * Adds all dataset level properties, everything except the distributions, 
+     * and returns the dataset resource.
+     */
+    Resource mapDatasetProperties(Model model, JsonObject datasetJson, ExportConfig config) {
+        String lang = config.getMetadataLanguage();
         String identifier = datasetJson.getString("identifier", "");
         // note that with protocol and authority we can build a persistent URL as well
         String persistentURL = datasetJson.getString("persistentUrl", "");
@@ -203,13 +717,13 @@ public class DCATAPExporter implements XMLExporter {
         Resource datasetModel = model.createResource(persistentURL);
         
         // Note that this is not the DCT type, but the RDF type
-        datasetModel.addProperty(model.createProperty(RDF, "type"), model.createResource(DCAT + "Dataset"));
+        datasetModel.addProperty(Vocab.RDF.type, Vocab.DCAT.Dataset);
 
         //--- 
         // DCAT-AP Dataset Property: landing page
         datasetModel.addProperty(
-                model.createProperty(DCAT, "landingPage"),
-                model.createResource(persistentURL));
+                Vocab.DCAT.landingPage,
+                datasetModel);
         
         
         //---
@@ -221,7 +735,7 @@ public class DCATAPExporter implements XMLExporter {
 
         //--- 
         // DCAT-AP Dataset Property: identifier
-        datasetModel.addProperty(model.createProperty(DCT, "identifier"), persistentURL);
+        datasetModel.addProperty(Vocab.DCT.identifier, persistentURL);
         
         // drill down to some useful objects
         JsonObject datasetVersion = datasetJson.getJsonObject("datasetVersion");
@@ -235,44 +749,30 @@ public class DCATAPExporter implements XMLExporter {
         int versionMinorNumber = datasetVersion.getInt("versionMinorNumber");
         String versionInfo = String.format("V%d.%d", versionNumber, versionMinorNumber);
 
-        datasetModel.addProperty(model.createProperty(DCAT, "version"), versionInfo);
+        datasetModel.addProperty(Vocab.DCAT.version, versionInfo);
 
         
-        // get citation metadata block, with most important metadata
-        JsonObject citationBlock = datasetVersion.getJsonObject("metadataBlocks").getJsonObject("citation");
-        // get the fields array from citation block
-        JsonArray citationFields = citationBlock.getJsonArray("fields");
-
-        // absolute minimal for DCAT-AP is title and description
-        // mandatory for DCAT-AP compliance
+        // index the fields of all metadata blocks once, 
+        // the citation block has the most important metadata
+        MetadataFieldIndex fields = MetadataFieldIndex.of(datasetVersion);
 
-        //---
-        // DCAT-AP Dataset Property: title
-        String title = getPrimitiveValueFromFieldsByTypeName(citationFields, "title", "no-title");
-        datasetModel.addProperty(model.createProperty(DCT, "title"), model.createLiteral(title, "en"));
+        // all the metadata from the fields, see FieldMapping for the table
+        Set<Property> mapped = FieldMapping.apply(model, datasetModel, fields, lang);
 
-        //---
-        // DCAT-AP Dataset Property: description 
-        String description = "no-description"; // provide default, because mandatory 
-        JsonArray dsDescriptions = getValuesFromCompoundFieldByTypeName(citationFields, "dsDescription");
-        // find the first dsDescriptionValue
-        for (int i = 0; i < dsDescriptions.size(); i++) {
-            JsonObject dsDescription = dsDescriptions.getJsonObject(i);
-            JsonObject dsDescriptionValue = dsDescription.getJsonObject("dsDescriptionValue");
-            if (dsDescriptionValue != null) {
-                description = dsDescriptionValue.getString("value", "no-description");
-                break;
-            }
+        // absolute minimal for DCAT-AP is title and description
+        // mandatory for DCAT-AP compliance, so provide defaults
+        if (!mapped.contains(Vocab.DCT.title)) {
+            datasetModel.addProperty(Vocab.DCT.title, model.createLiteral("no-title", lang));
         }
-        datasetModel.addProperty(model.createProperty(DCT, "description"), model.createLiteral(description, "en"));
-        
-        // add more metadata from citationFields
-        
+        if (!mapped.contains(Vocab.DCT.description)) {
+            datasetModel.addProperty(Vocab.DCT.description, model.createLiteral("no-description", lang));
+        }
+
         //--- 
         // DCAT-AP Dataset Property: release date
         String pubDate = datasetVersion.getString("publicationDate", "no-publication-date");
         // check if we can parse the date properly?
-        datasetModel.addProperty(model.createProperty(DCT, "issued"), model.createTypedLiteral(pubDate, XSDDatatype.XSDdate));
+        datasetModel.addProperty(Vocab.DCT.issued, model.createTypedLiteral(pubDate, XSDDatatype.XSDdate));
         
         //---
         // DCAT-AP Dataset Property: modification date
@@ -284,21 +784,21 @@ public class DCATAPExporter implements XMLExporter {
             LocalDateTime parsedDateTime = LocalDateTime.parse(lastUpdateTime, DateTimeFormatter.ISO_DATE_TIME);
             formattedLastUpdateTime = parsedDateTime.format(DateTimeFormatter.ISO_DATE);
         } catch (Exception e) {
-            System.out.println("Failed to parse lastUpdateTime: " + lastUpdateTime);
+            logger.warning("Failed to parse lastUpdateTime: " + lastUpdateTime);
         }
-        datasetModel.addProperty(model.createProperty(DCT, "modified"), model.createTypedLiteral(formattedLastUpdateTime, XSDDatatype.XSDdate));
+        datasetModel.addProperty(Vocab.DCT.modified, model.createTypedLiteral(formattedLastUpdateTime, XSDDatatype.XSDdate));
         
         //---
         // DCAT-AP Dataset Property: provenance
         // we do not have any explicit provenance information in Dataverse for now
         // it is not mandatory in DCAT-AP
         //        Resource provenanceStatement =  model.createResource()
-        //                        .addProperty(model.createProperty(RDFS, "type"), "dct:ProvenanceStatement")
+        //                        .addProperty(Vocab.RDFS.type, "dct:ProvenanceStatement")
         //                        .addProperty(
-        //                                model.createProperty(RDFS, "label"),
+        //                                Vocab.RDFS.label,
         //                                model.createLiteral(
         //                                        "No specific information about how the data was collected", "en"));
-        //        datasetModel.addProperty(model.createProperty(DCT, "provenance"), provenanceStatement);
+        //        datasetModel.addProperty(Vocab.DCT.provenance, provenanceStatement);
         
         //---
         // DCAT-AP Dataset Property: publisher
@@ -309,58 +809,25 @@ public class DCATAPExporter implements XMLExporter {
         // The SchemaDotOrg exporter has some information, but it is using the collection information (root level). 
         // not sure if that is the best option here?
         //        Resource publisher = model.createResource()
-        //                .addProperty(model.createProperty(RDFS, "type"), "foaf:Agent")
-        //                .addProperty(model.createProperty(RDFS, "type"), "foaf:Organization")
+        //                .addProperty(Vocab.RDFS.type, "foaf:Agent")
+        //                .addProperty(Vocab.RDFS.type, "foaf:Organization")
         //                .addProperty(
         //                        model.createProperty("http://xmlns.com/foaf/0.1/name"),
         //                        model.createLiteral("DANS Data Station Life Sciences", "en"))
         //                .addProperty(
-        //                        model.createProperty(VCARD, "hasURL"),
+        //                        Vocab.VCARD.hasURL,
         //                        "http://dans.knaw.nl");
-        //        datasetModel.addProperty(model.createProperty(DCT, "publisher"), publisher);
-
-        //---
-        // DCAT-AP Dataset Property: contact point
-        JsonArray contactPoints = getValuesFromCompoundFieldByTypeName(citationFields, "datasetContact");
-        Resource contactPoint = createContactPoint(model, contactPoints);
-        datasetModel.addProperty(model.createProperty(DCAT, "contactPoint"), contactPoint);
-
-        //---
-        // DCAT-AP Dataset Property: creator
-        // Creators are the authors from citationFields
-        JsonArray authors = getValuesFromCompoundFieldByTypeName(citationFields, "author");
-        for (int i = 0; i < authors.size(); i++) {
-            JsonObject authorObj = authors.getJsonObject(i);
-            Resource creatorResource = createCreator(model, authorObj);
-            datasetModel.addProperty(model.createProperty(DCT, "creator"), creatorResource);
-        }
+        //        datasetModel.addProperty(Vocab.DCT.publisher, publisher);
 
         // DON'T think this is in DCAT-AP
         // alternative title, is alternativeTitle multiple primitive
-        //        List<String> altTitles = getPrimitiveValueArrayFromFieldsByTypeName(citationFields, "alternativeTitle");
+        //        List<String> altTitles = fields.getPrimitiveValues("alternativeTitle");
         //        for (String altTitleValue : altTitles) {
         //                datasetModel.addProperty(
-        //                        model.createProperty(DCT, "alternative"),
+        //                        Vocab.DCT.alternative,
         //                        model.createLiteral(altTitleValue, "en"));
         //        }
         
-        //---
-        // DCAT-AP Dataset Property: language
-        // Determine the dataset language, if any
-        // Note that it is not the same as the metadata language, which is now assumed default '@en' !
-        // also there is a multi-values fields, we can have multiple languages and the list of code is huge
-        // and most like need mapping to something useful for DCAT-AP
-        //String language = getPrimitiveValueFromFieldsByTypeName(citationFields, "language", "");
-        List<String> languages = getValueArrayFromMultipleFieldByTypeName(citationFields, "language");
-        for (String langValue : languages) {
-            // for now just add the literal value as is
-            datasetModel.addProperty(
-                    model.createProperty(DCT, "language"),
-                    model.createLiteral(langValue, "en"));
-        }
-        // what if we have no language at all? then we skip it.
-        // if it is mandatory we could add "Unknown"@en or similar?
-        
         //---
         // DCAT-AP Dataset Property: access rights
         // accessRights is mandatory for DCAT-AP-NL, not for DCAT-AP, so skipping for now
@@ -372,93 +839,80 @@ public class DCATAPExporter implements XMLExporter {
         // dcat:theme <http://publications.europa.eu/resource/authority/data-theme/HEAL> ;
         // probably some mapping from subjects to data-themes needed here
         // only for Health it is mandatory!
-        //datasetModel.addProperty(model.createProperty(DCAT, "theme"), "http://publications.europa.eu/resource/authority/data-theme/HEAL");
+        //datasetModel.addProperty(Vocab.DCAT.theme, "http://publications.europa.eu/resource/authority/data-theme/HEAL");
         // if we have subject:'Medicine, Health and Life Sciences',	we can map to HEAL, and we could do HealthCDAT-AP
         // otherwise mapping seems useless for now. 
         //
         // Since it is research data you could argue it always also with an educational purpose?
         // http://publications.europa.eu/resource/authority/data-theme/EDUC
         
-        //---
-        // DCAT-AP Dataset Property: keyword
-        // keywords would be good, if we have them
-        JsonArray keywords = getValuesFromCompoundFieldByTypeName(citationFields, "keyword");
-        for (int i = 0; i < keywords.size(); i++) {
-            JsonObject keywordObj = keywords.getJsonObject(i);
-            JsonObject keywordValueObj = keywordObj.getJsonObject("keywordValue");
-            if (keywordValueObj != null) {
-                String keywordValue = keywordValueObj.getString("value", "");
-                // Note that keywords kan have URI's when an CVOC is used, but for now just use the literal value
-                if (!keywordValue.isEmpty()) {
-                    datasetModel.addProperty(
-                            model.createProperty(DCAT, "keyword"),
-                            model.createLiteral(keywordValue, "en"));
-                }
-            }
-        }
         // subjects as dct:subject, could also be added as a keyword
         // there is no subject in DCAT-AP, only keywords
         // however, what if it just was 'Other', we could skip that as a keyword I think ?
 
-        // DCAT-AP Dataset Property not used and mentioned above yet, but could maybe be added:
+        // DCAT-AP Dataset Property not used and mentioned above yet, but could maybe be added
+        // (the ones mapped from the metadata fields are in the FieldMapping table):
         //    documentation 
         //    frequency 
-        //    geographical coverage 
         //    has version 
         //    in series 
-        //    is referenced by 
-        //    other identifier 
         //    qualified attribution 
         //    qualified relation 
         //    related resource 
         //    sample 
         //    source 
         //    spatial resolution 
-        //    temporal coverage 
         //    temporal resolution 
         //    type 
         //    conforms to 
         //    version notes 
         //    was generated by
         
+        return datasetModel;
+    }
+
+    /**
+     * Adds the distribution for the file and links it to the dataset.
+     */
+    void addFileDistribution(Model model, Resource datasetModel, JsonObject fileObj, JsonObject licenseObj,
+            ExportConfig config) {
+        FileDistributionEvent event = new FileDistributionEvent();
+        event.begin();
+        // Needed to pass license, because is only on dataset level
+        Resource distribution = createFileDistribution(model, fileObj, licenseObj, config);
+        // add the accessURL to the distribution, using the dataset persistent URL
+        //---
+        // DCAT-AP Distribution Property: access URL
+        distribution.addProperty(Vocab.DCAT.accessURL, datasetModel.getURI());
         
-        // Note: we could try to determine dataset license, and somehow add it to each file distribution as well
-        // we have the name and the uri in the license object, but can we map that?
-        // just the URI, but note that we do not have license on dataset level, only on file level
-        JsonObject licenseObj = datasetVersion.getJsonObject("license");
+        // link the distribution to the dataset
+        datasetModel.addProperty(Vocab.DCAT.distribution, distribution);
         
-        //---
-        // DCAT-AP Dataset Property: dataset distribution
-        // find any files and add them as distributions
-        // Note that dcat-ap there should be at least one file/distribution, 
-        // but Dataverse does not force that!
-        JsonArray files = datasetVersion.getJsonArray("files");
-        for (int i = 0; i < files.size(); i++) {
-            JsonObject fileObj = files.getJsonObject(i);
-            // Needed to pass license, because is only on dataset level
-            Resource distribution = createFileDistribution(model, fileObj, licenseObj);
-            // add the accessURL to the distribution, using the dataset persistent URL
-            //---
-            // DCAT-AP Distribution Property: access URL
-            distribution.addProperty(model.createProperty(DCAT, "accessURL"), persistentURL);
-            
-            // link the distribution to the dataset
-            datasetModel.addProperty(model.createProperty(DCAT, "distribution"), distribution);
+        event.end();
+        if (event.shouldCommit()) {
+            JsonObject dataFile = fileObj.getJsonObject("dataFile");
+            event.persistentUrl = datasetModel.getURI();
+            event.fileId = dataFile.getInt("id", 0);
+            event.fileSize = dataFile.getInt("filesize", 0);
+            event.commit();
         }
-        
-        return model;
     }
     
     Resource createFileDistribution(Model model, JsonObject fileObj, JsonObject licenseObj) {
+        return createFileDistribution(model, fileObj, licenseObj, config);
+    }
+
+    Resource createFileDistribution(Model model, JsonObject fileObj, JsonObject licenseObj, ExportConfig config) {
         JsonObject dataFile = fileObj.getJsonObject("dataFile");
+        String lang = config.getMetadataLanguage();
         
         // could use the persistenId if we have one for the file
         int id = dataFile.getInt("id", 0);
-        // the schema.org export uses http://localhost:8080/api/access/datafile, so we can do the same here
-        Resource distribution = model.createResource("http://localhost:8080/api/access/datafile/" + id);
+        // the file access API of the installation, like the schema.org export uses
+        Resource distribution = model.createResource(config.getFileAccessBaseUrl() + id);
         //Resource distribution = model.createResource();
         
-        distribution.addProperty(model.createProperty(RDF, "type"), model.createResource(DCAT + "Distribution"));
+        distribution.addProperty(Vocab.RDF.type, Vocab.DCAT.Distribution);
 
         //---
         // DCAT-AP Distribution Property: download URL
@@ -469,7 +923,7 @@ public class DCATAPExporter implements XMLExporter {
         //---
         // DCAT-AP Distribution Property: title
         String fileName = dataFile.getString("filename", "no-filename");
-        distribution.addProperty(model.createProperty(DCT, "title"), fileName);
+        distribution.addProperty(Vocab.DCT.title, fileName);
         
         //---
         // DCAT-AP Distribution Property: rights
@@ -480,26 +934,26 @@ public class DCATAPExporter implements XMLExporter {
         // no specific terms used for now
         if (restricted != null && restricted) {
             distribution.addProperty(
-                    model.createProperty(DCT, "rights"),
-                    model.createResource("http://publications.europa.eu/resource/authority/access-right/RESTRICTED"));
+                    Vocab.DCT.rights,
+                    Vocab.AccessRight.RESTRICTED);
         } else {
             distribution.addProperty(
-                    model.createProperty(DCT, "rights"),
-                    model.createResource("http://publications.europa.eu/resource/authority/access-right/PUBLIC"));
+                    Vocab.DCT.rights,
+                    Vocab.AccessRight.PUBLIC);
         }
         // Note: what are we going to do with embargo and or retentionPeriod?
         
         // DON'T see this in DCAT-AP !
         // type is not mandatory for DCAT-AP, so skipping for now
         // we always have here DOWNLOADABLE_FILE, even if we cannot really download it?
-        //distribution.addProperty(model.createProperty(DCT, "type"),
+        //distribution.addProperty(Vocab.DCT.type,
         //        "http://publications.europa.eu/resource/authority/distribution-type/DOWNLOADABLE_FILE");
         
         //---
         // DCAT-AP Distribution Property: rbyte size
         int bytesize = dataFile.getInt("filesize", 0);
-        //distribution.addProperty(model.createProperty(DCAT, "byteSize"), String.valueOf(bytesize) );
-        distribution.addProperty(model.createProperty(DCAT, "byteSize"), model.createTypedLiteral(bytesize));
+        //distribution.addProperty(Vocab.DCAT.byteSize, String.valueOf(bytesize) );
+        distribution.addProperty(Vocab.DCAT.byteSize, model.createTypedLiteral(bytesize));
         
         //---
         // DCAT-AP Distribution Property: description
@@ -509,18 +963,23 @@ public class DCATAPExporter implements XMLExporter {
         String description = dataFile.getString("description", "No specific description available");
         if (!description.isEmpty()) {
             distribution.addProperty(
-                    model.createProperty(DCT, "description"),
-                    model.createLiteral(description, "en"));
+                    Vocab.DCT.description,
+                    model.createLiteral(description, lang));
         }
         
         //---
         // DCAT-AP Distribution Property: format
-        // DCT format; use MIME type from contentType, but that would need some mapping
         // use mediatype from IANA
         String mimeType = dataFile.getString("contentType", "application/octet-stream");
         distribution.addProperty(
-                model.createProperty(DCAT, "mediaType"),
-                "http://www.iana.org/assignments/media-types/" + mimeType);
+                Vocab.DCAT.mediaType,
+                Vocab.mediaType(mimeType));
+        // DCT format; the EU file type for the MIME type, without parameters like charset
+        int parameters = mimeType.indexOf(';');
+        Resource fileType = AuthorityTable.fileType().get(parameters < 0 ? mimeType : mimeType.substring(0, parameters));
+        if (fileType != null) {
+            distribution.addProperty(Vocab.DCT.format, fileType);
+        }
         
         //---
         // DCAT-AP Distribution Property: checksum
@@ -529,16 +988,16 @@ public class DCATAPExporter implements XMLExporter {
         if (checksumObj != null) {
             String checksumValue = checksumObj.getString("value", "");
             String checksumType = checksumObj.getString("type", "MD5"); // default to MD5
-            String checksumAlgorithm = getSPDXChecksumAlgorithmURI(checksumType);
-            if (!checksumAlgorithm.isEmpty() && !checksumValue.isEmpty()) {
+            Literal checksumAlgorithm = getSPDXChecksumAlgorithm(checksumType);
+            if (checksumAlgorithm != null && !checksumValue.isEmpty()) {
                 Resource checksumResource = model.createResource()
                         .addProperty(
-                                model.createProperty(SPDX, "algorithm"),
+                                Vocab.SPDX.algorithm,
                                 checksumAlgorithm)
                         .addProperty(
-                                model.createProperty(SPDX, "checksumValue"),
+                                Vocab.SPDX.checksumValue,
                                 checksumValue);
-                distribution.addProperty(model.createProperty(SPDX, "checksum"), checksumResource);
+                distribution.addProperty(Vocab.SPDX.checksum, checksumResource);
             }
         }
         
@@ -549,14 +1008,18 @@ public class DCATAPExporter implements XMLExporter {
         if (licenseObj != null) {
             String licenseURI = licenseObj.getString("uri", "");
             if (!licenseURI.isEmpty()) {
-                distribution.addProperty(model.createProperty(DCT, "license"), model.createResource(licenseURI));
+                distribution.addProperty(Vocab.DCT.license, Vocab.sharedResource(licenseURI));
                 
             } else {
+                // the EU licence for the name, or else just the name
                 String licenseName = licenseObj.getString("name", "");
-                if (!licenseName.isEmpty()) {
+                Resource licence = AuthorityTable.licence().get(licenseName);
+                if (licence != null) {
+                    distribution.addProperty(Vocab.DCT.license, licence);
+                } else if (!licenseName.isEmpty()) {
                     distribution.addProperty(
-                            model.createProperty(DCT, "license"),
-                            model.createLiteral(licenseName, "en"));
+                            Vocab.DCT.license,
+                            model.createLiteral(licenseName, lang));
                 }
             }
         }
@@ -582,37 +1045,37 @@ public class DCATAPExporter implements XMLExporter {
     }
     
     // return the algorithm for SPDX based on the type string from Dataverse
-    String getSPDXChecksumAlgorithmURI(String type) {
+    Literal getSPDXChecksumAlgorithm(String type) {
         // note that Dataverse StandardSupportedAlgorithms use a minus with SHA
         switch (type.toUpperCase()) {
             case "MD5":
-                return "checksumAlgorithm_md5";
+                return Vocab.SPDX.checksumAlgorithm_md5;
             case "SHA-1":
-                return "checksumAlgorithm_sha1";
+                return Vocab.SPDX.checksumAlgorithm_sha1;
             case "SHA-224": 
-                return "checksumAlgorithm_sha224";
+                return Vocab.SPDX.checksumAlgorithm_sha224;
             case "SHA-256":
-                return "checksumAlgorithm_sha256";
+                return Vocab.SPDX.checksumAlgorithm_sha256;
             case "SHA-512":
-                return "checksumAlgorithm_sha512";
+                return Vocab.SPDX.checksumAlgorithm_sha512;
             default:
-                return ""; // empty indicates we do not have a mapping
+                return null; // null indicates we do not have a mapping
         }
     }
     
-    Resource createCreator(Model model, JsonObject author) {
+    static Resource createCreator(Model model, JsonObject author, String lang) {
         Resource creatorResource = model.createResource();
-        //creatorResource.addProperty(model.createProperty(RDFS, "type"), model.createResource(FOAF + "Agent"));
+        //creatorResource.addProperty(Vocab.RDFS.type, model.createResource(FOAF + "Agent"));
         // assume person for now - could be organisation as well?
-        creatorResource.addProperty(model.createProperty(RDFS, "type"), model.createResource(FOAF + "Person"));
+        creatorResource.addProperty(Vocab.RDFS.type, Vocab.FOAF.Person);
         
         JsonObject authorName = author.getJsonObject("authorName");
         if (authorName != null) {
             String authorNameValue = authorName.getString("value", "");
             // But what if it is a ORCID or other autor identifier?
             creatorResource.addProperty(
-                    model.createProperty(FOAF, "name"),
-                    model.createLiteral(authorNameValue, "en"));
+                    Vocab.FOAF.name,
+                    model.createLiteral(authorNameValue, lang));
         }
         JsonObject authorAffiliation = author.getJsonObject("authorAffiliation");
         if (authorAffiliation != null) {
@@ -622,129 +1085,46 @@ public class DCATAPExporter implements XMLExporter {
                 // But what if it is a ROR or other organisation identifier?
                 // expandedvalue.termName could be used for getting the humanreadable name
                 creatorResource.addProperty(
-                        model.createProperty(VCARD, "organization-name"),
-                        model.createLiteral(authorAffiliationValue, "en"));
+                        Vocab.VCARD.organizationName,
+                        model.createLiteral(authorAffiliationValue, lang));
             }
         }
         return creatorResource;
     }
     
-    Resource createContactPoint (Model model, JsonArray contactPoints) {
-        Resource contactPointResource = null;
-        // just take the first one for now, if any
-        
-        if (!contactPoints.isEmpty()) {
-            contactPointResource = model.createResource();
-            
-            JsonObject contactPointObj = contactPoints.getJsonObject(0);
-            JsonObject contactName = contactPointObj.getJsonObject("datasetContactName");
-            if (contactName != null) {
-                String contactNameValue = contactName.getString("value", "");
-                // But what if it is a ORCID or other autor identifier?
-                contactPointResource.addProperty(
-                        model.createProperty(VCARD, "fn"),
-                        model.createLiteral(contactNameValue, "en"));
-            }
+    static Resource createContactPoint(Model model, JsonObject contactPointObj, String lang) {
+        Resource contactPointResource = model.createResource();
 
-            JsonObject contactEmail = contactPointObj.getJsonObject("datasetContactEmail");
-            if (contactEmail != null) {
-                String contactEmailValue = contactEmail.getString("value", "");
-                if (!contactEmailValue.isEmpty()) {
-                    contactPointResource.addProperty(
-                            model.createProperty(VCARD, "hasEmail"),
-                            "mailto:" + contactEmailValue);
-                }
-            }
-            
-            JsonObject contactAffiliation = contactPointObj.getJsonObject("datasetContactAffiliation");
-            if (contactAffiliation != null) {
-                String contactAffiliationValue = contactAffiliation.getString("value", "");
-                if (!contactAffiliationValue.isEmpty()) {
-                    // vcard for affiliation, supposed to be organization-name
-                    contactPointResource.addProperty(
-                            model.createProperty(VCARD, "organization-name"),
-                            model.createLiteral(contactAffiliationValue, "en"));
-                }
-            }
-        }
-        
-        return contactPointResource;
-    }
-    
-    //--- JSON helper stuff, should be able to get better Dataverse JSON aware stuff from elsewhere?
-    
-    String getPrimitiveValueFromFieldsByTypeName(JsonArray fields, String typeName, String defaultValue) {
-        for (int i = 0; i < fields.size(); i++) {
-            JsonObject field = fields.getJsonObject(i);
-            if (field.getString("typeName").equals(typeName)) {
-                // if it has "typeClass": "primitive", just get the value
-                if (field.getString("typeClass").equals("primitive") && 
-                        !field.getBoolean("multiple", false)) {
-                    return field.getString("value", defaultValue);
-                }
-            }
-        }
-        return defaultValue;
-    }
-    
-    // we can have a primitive with multiple values as well
-    List<String> getPrimitiveValueArrayFromFieldsByTypeName(JsonArray fields, String typeName)
-    {
-        for (int i = 0; i < fields.size(); i++) {
-            JsonObject field = fields.getJsonObject(i);
-            if (field.getString("typeName").equals(typeName)) {
-                // if it has "typeClass": "primitive", just get the value
-                if (field.getString("typeClass").equals("primitive")) {
-                    // check that we have "multiple": true
-                    if (!field.getBoolean("multiple", false)) {
-                        // not multiple, list with single value
-                        String singleValue = field.getString("value", "");
-                        return java.util.Collections.singletonList(singleValue);
-                    } else {
-                        JsonArray valuesArray = field.getJsonArray("value");
-                        // convert JsonArray to List<String>
-                        List<String> valuesList = new java.util.ArrayList<>();
-                        for (int j = 0; j < valuesArray.size(); j++) {
-                            valuesList.add(valuesArray.getString(j, ""));
-                        }
-                        return valuesList;
-                    }
-                }
-            }
+        JsonObject contactName = contactPointObj.getJsonObject("datasetContactName");
+        if (contactName != null) {
+            String contactNameValue = contactName.getString("value", "");
+            // But what if it is a ORCID or other autor identifier?
+            contactPointResource.addProperty(
+                    Vocab.VCARD.fn,
+                    model.createLiteral(contactNameValue, lang));
         }
-        return java.util.Collections.emptyList();
-    }
 
-    List<String> getValueArrayFromMultipleFieldByTypeName(JsonArray fields, String typeName) {
-        for (int i = 0; i < fields.size(); i++) {
-            JsonObject field = fields.getJsonObject(i);
-            if (field.getString("typeName").equals(typeName)) {
-                // if it has "typeClass": "multiple", get the value array
-                if (field.getBoolean("multiple")) {
-                    JsonArray valuesArray = field.getJsonArray("value");
-                    // convert JsonArray to List<String>
-                    List<String> valuesList = new java.util.ArrayList<>();
-                    for (int j = 0; j < valuesArray.size(); j++) {
-                        valuesList.add(valuesArray.getString(j, ""));
-                    }
-                    return valuesList;
-                }
+        JsonObject contactEmail = contactPointObj.getJsonObject("datasetContactEmail");
+        if (contactEmail != null) {
+            String contactEmailValue = contactEmail.getString("value", "");
+            if (!contactEmailValue.isEmpty()) {
+                contactPointResource.addProperty(
+                        Vocab.VCARD.hasEmail,
+                        "mailto:" + contactEmailValue);
             }
         }
-        return java.util.Collections.emptyList();
-    }
-    
-    JsonArray getValuesFromCompoundFieldByTypeName(JsonArray fields, String typeName) {
-        for (int i = 0; i < fields.size(); i++) {
-            JsonObject field = fields.getJsonObject(i);
-            if (field.getString("typeName").equals(typeName)) {
-                // if it has "typeClass": "compound", get the value array
-                if (field.getString("typeClass").equals("compound")) {
-                    return field.getJsonArray("value");
-                }
+
+        JsonObject contactAffiliation = contactPointObj.getJsonObject("datasetContactAffiliation");
+        if (contactAffiliation != null) {
+            String contactAffiliationValue = contactAffiliation.getString("value", "");
+            if (!contactAffiliationValue.isEmpty()) {
+                // vcard for affiliation, supposed to be organization-name
+                contactPointResource.addProperty(
+                        Vocab.VCARD.organizationName,
+                        model.createLiteral(contactAffiliationValue, lang));
             }
         }
-        // return an empty JsonArray
-        return Json.createArrayBuilder().build();
+
+        return contactPointResource;
     }
 }
@@ -0,0 +1,66 @@
+package io.gdcc.export.dcatap;
+
+import io.gdcc.spi.export.ExportDataProvider;
+import io.gdcc.spi.export.ExportException;
+import io.gdcc.spi.export.Exporter;
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * Base for the exporters of DCAT-AP in other formats than the harvestable RDF/XML of DCATAPExporter.
+ *
+ * Dataverse stores each export format separately, so every format needs its own exporter.
+ * They all use the same DCATAPExporter with the configuration for their format,
+ * and share its cache of mapped graphs, so exporting a dataset version in all formats maps it only once.
+ */
+public abstract class DCATAPFormatExporter implements Exporter {
+    // created on first use, so only when Dataverse loads one of these exporters
+    private static final class Shared {
+        static final DCATAPExporter EXPORTER = new DCATAPExporter();
+    }
+
+    private final String formatName;
+    private final String displayName;
+    private final ExportConfig config;
+
+    protected DCATAPFormatExporter(String formatName, String displayName, ExportFormat format) {
+        this.formatName = formatName;
+        this.displayName = displayName;
+        this.config = ExportConfig.configured().withFormat(format);
+    }
+
+    @Override
+    public void exportDataset(ExportDataProvider dataProvider, OutputStream outputStream) throws ExportException {
+        Shared.EXPORTER.exportDataset(dataProvider, outputStream, config);
+    }
+
+    @Override
+    public String getFormatName() {
+        return formatName;
+    }
+
+    @Override
+    public String getDisplayName(Locale locale) {
+        return displayName;
+    }
+
+    /** Only the RDF/XML of DCATAPExporter is for harvesting. */
+    @Override
+    public Boolean isHarvestable() {
+        return false;
+    }
+
+    @Override
+    public Boolean isAvailableToUsers() {
+        return true;
+    }
+
+    @Override
+    public String getMediaType() {
+        return config.getFormat().getMediaType();
+    }
+
+    ExportConfig getConfig() {
+        return config;
+    }
+}
@@ -0,0 +1,15 @@
+package io.gdcc.export.dcatap;
+
+import com.google.auto.service.AutoService;
+import io.gdcc.spi.export.Exporter;
+
+/**
+ * DCAT-AP as JSON-LD, for web applications.
+ */
+@AutoService(Exporter.class)
+public class DCATAPJsonLdExporter extends DCATAPFormatExporter {
+
+    public DCATAPJsonLdExporter() {
+        super("dcat_ap_jsonld", "DCAT-AP (JSON-LD)", ExportFormat.JSON_LD);
+    }
+}
@@ -0,0 +1,15 @@
+package io.gdcc.export.dcatap;
+
+import com.google.auto.service.AutoService;
+import io.gdcc.spi.export.Exporter;
+
+/**
+ * DCAT-AP as Turtle, the easiest to read.
+ */
+@AutoService(Exporter.class)
+public class DCATAPTurtleExporter extends DCATAPFormatExporter {
+
+    public DCATAPTurtleExporter() {
+        super("dcat_ap_ttl", "DCAT-AP (Turtle)", ExportFormat.TURTLE);
+    }
+}
@@ -0,0 +1,106 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonWriter;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Fingerprint of everything that determines the export of a dataset version.
+ *
+ * A published dataset version does not change, 
+ * and any change to a draft updates its lastUpdateTime,
+ * so the persistentUrl, version numbers and lastUpdateTime identify the metadata.
+ * The files are included as well, to be safe, and the configuration, because it determines the output format,
+ * the file access URL, the language of the metadata and the page.
+ * And the version of the mapping, because a new version of the exporter can give other output for the same metadata.
+ */
+final class DatasetFingerprint {
+
+    /**
+     * Version of the mapping and the serializers, the first part of every fingerprint.
+     * Bump it whenever they change the output for the same metadata, otherwise the cache (which can be on disk
+     * and survive a restart) keeps giving the old exports, and harvesters keep getting 304 for their ETags.
+     */
+    static final String MAPPING_VERSION = "1";
+
+    private DatasetFingerprint() {
+    }
+
+    /** Hex encoded SHA-256 fingerprint. */
+    static String of(JsonObject datasetJson, ExportConfig config) {
+        return of(datasetJson, config, MAPPING_VERSION);
+    }
+
+    static String of(JsonObject datasetJson, ExportConfig config, String mappingVersion) {
+        MessageDigest digest = sha256();
+        updateVersion(digest, datasetJson, mappingVersion);
+        updateMapping(digest, config);
+        update(digest, config.getFormat().name());
+        update(digest, String.valueOf(config.isStreaming()));
+        update(digest, String.valueOf(config.isCanonical()));
+        if (config.isPaged()) {
+            update(digest, config.getPageSize() + "/" + config.getPage());
+            update(digest, config.getPageUrlTemplate());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** 
+     * Fingerprint of the dataset version and the configuration of the mapping, 
+     * the same for all output formats. 
+     */
+    static String ofVersion(JsonObject datasetJson, ExportConfig config) {
+        return ofVersion(datasetJson, config, MAPPING_VERSION);
+    }
+
+    static String ofVersion(JsonObject datasetJson, ExportConfig config, String mappingVersion) {
+        MessageDigest digest = sha256();
+        updateVersion(digest, datasetJson, mappingVersion);
+        updateMapping(digest, config);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void updateMapping(MessageDigest digest, ExportConfig config) {
+        update(digest, config.getFileAccessBaseUrl());
+        update(digest, config.getMetadataLanguage());
+    }
+
+    private static void updateVersion(MessageDigest digest, JsonObject datasetJson, String mappingVersion) {
+        update(digest, mappingVersion);
+        update(digest, datasetJson.getString("persistentUrl", ""));
+        JsonObject datasetVersion = datasetJson.getJsonObject("datasetVersion");
+        if (datasetVersion != null) {
+            update(digest, String.valueOf(datasetVersion.getInt("versionNumber", -1)));
+            update(digest, String.valueOf(datasetVersion.getInt("versionMinorNumber", -1)));
+            update(digest, datasetVersion.getString("lastUpdateTime", ""));
+            JsonArray files = datasetVersion.getJsonArray("files");
+            if (files != null) {
+                // write the JSON straight into the digest, no need to have it as a (large) string
+                try (JsonWriter writer = Json.createWriter(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+                    writer.writeArray(files);
+                }
+            }
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0); // separator, so "ab"+"c" differs from "a"+"bc"
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.gdcc.export.dcatap;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * Turns the triples into quads in the graph named after the dataset, for N-Quads output.
+ * That way the exports of many datasets can be concatenated and still be told apart.
+ *
+ * The dataset is not always known when the first triples come in,
+ * for instance when the dataset JSON is read as a stream and the files come first.
+ * Then the triples are kept until the dataset shows up; it is the subject of the rdf:type dcat:Dataset
+ * and of the dcat:distribution triples, so at most the triples of one file have to be kept.
+ */
+class DatasetGraphStream extends StreamRDFWrapper {
+    private Node graphName;
+    private List<Triple> pending = new ArrayList<>();
+
+    DatasetGraphStream(StreamRDF quadStream) {
+        this(quadStream, null);
+    }
+
+    /** @param graphName the dataset, or null if it should be found in the triples */
+    DatasetGraphStream(StreamRDF quadStream, Node graphName) {
+        super(quadStream);
+        this.graphName = graphName;
+    }
+
+    @Override
+    public void triple(Triple triple) {
+        if (graphName == null) {
+            if (isDatasetTriple(triple)) {
+                graphName = triple.getSubject();
+                pending.forEach(this::triple);
+                pending = null;
+            } else {
+                pending.add(triple);
+                return;
+            }
+        }
+        other.quad(Quad.create(graphName, triple));
+    }
+
+    @Override
+    public void finish() {
+        if (pending != null) {
+            // no dataset at all, keep them in the default graph
+            pending.forEach(triple -> other.quad(Quad.create(Quad.defaultGraphIRI, triple)));
+            pending = null;
+        }
+        super.finish();
+    }
+
+    private static boolean isDatasetTriple(Triple triple) {
+        return triple.getPredicate().equals(Vocab.DCAT.distribution.asNode())
+                || (triple.getPredicate().equals(Vocab.RDF.type.asNode())
+                        && triple.getObject().equals(Vocab.DCAT.Dataset.asNode()));
+    }
+}
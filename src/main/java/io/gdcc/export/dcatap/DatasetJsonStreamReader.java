@@ -0,0 +1,96 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParsingException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads the Dataverse dataset JSON as a stream of parser events.
+ *
+ * Everything is read into JSON objects as usual, except the entries of datasetVersion.files;
+ * these are handed to a consumer one by one, as soon as each entry is complete.
+ * This way the files array, by far the largest part for big datasets, is never in memory as a whole.
+ * The returned dataset JSON has an empty files array.
+ */
+class DatasetJsonStreamReader {
+    private final Map<String, JsonValue> dataset = new LinkedHashMap<>();
+    private final Map<String, JsonValue> datasetVersion = new LinkedHashMap<>();
+
+    /** A top level value of the dataset JSON read so far, or null if not read (yet). */
+    JsonValue getDatasetValue(String key) {
+        return dataset.get(key);
+    }
+
+    /** A value of the datasetVersion read so far, or null if not read (yet). */
+    JsonValue getDatasetVersionValue(String key) {
+        return datasetVersion.get(key);
+    }
+
+    /**
+     * Whether we know the license of the dataset version.
+     * The license is not there when custom terms are used, 
+     * but Dataverse writes the license (or terms) before the metadata blocks, 
+     * so if we have seen the metadata blocks, we know that there is no license.
+     */
+    boolean isLicenseKnown() {
+        return datasetVersion.containsKey("license") || datasetVersion.containsKey("metadataBlocks");
+    }
+
+    JsonObject read(Reader reader, Consumer<JsonObject> fileConsumer) {
+        try (JsonParser parser = Json.createParser(reader)) {
+            expect(parser, JsonParser.Event.START_OBJECT);
+            while (parser.next() == JsonParser.Event.KEY_NAME) {
+                String key = parser.getString();
+                parser.next();
+                if (key.equals("datasetVersion") && parser.currentEvent() == JsonParser.Event.START_OBJECT) {
+                    readDatasetVersion(parser, fileConsumer);
+                    dataset.put(key, JsonValue.EMPTY_JSON_OBJECT); // placeholder to keep the order of the keys
+                } else {
+                    dataset.put(key, parser.getValue());
+                }
+            }
+        }
+        JsonObjectBuilder versionBuilder = Json.createObjectBuilder();
+        datasetVersion.forEach(versionBuilder::add);
+        versionBuilder.add("files", JsonValue.EMPTY_JSON_ARRAY);
+        JsonObjectBuilder datasetBuilder = Json.createObjectBuilder();
+        dataset.forEach((key, value) -> {
+            if (key.equals("datasetVersion")) {
+                datasetBuilder.add(key, versionBuilder);
+            } else {
+                datasetBuilder.add(key, value);
+            }
+        });
+        return datasetBuilder.build();
+    }
+
+    private void readDatasetVersion(JsonParser parser, Consumer<JsonObject> fileConsumer) {
+        while (parser.next() == JsonParser.Event.KEY_NAME) {
+            String key = parser.getString();
+            parser.next();
+            if (key.equals("files") && parser.currentEvent() == JsonParser.Event.START_ARRAY) {
+                while (parser.next() != JsonParser.Event.END_ARRAY) {
+                    if (parser.currentEvent() != JsonParser.Event.START_OBJECT) {
+                        throw new JsonParsingException("Expected a file object", parser.getLocation());
+                    }
+                    fileConsumer.accept(parser.getObject());
+                }
+            } else {
+                datasetVersion.put(key, parser.getValue());
+            }
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonParser.Event expected) {
+        if (!parser.hasNext() || parser.next() != expected) {
+            throw new JsonParsingException("Expected " + expected, parser.getLocation());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.json.JsonObject;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.TDB2Factory;
+import org.apache.jena.tdb2.sys.TDBInternal;
+
+/**
+ * Export of a dataset that is too large for an in-memory model, in a format that cannot be streamed.
+ *
+ * The dataset is mapped to a TDB2 store in a temporary directory, and written from there,
+ * the store is removed afterwards. Slower than in memory, but the heap only has the caches of TDB2:
+ * JSON-LD, the only format the planner sends here, is written from the store one node at a time
+ * (see JsonLdWriter.writeIndexed), so the graph is never copied to the heap.
+ */
+class DiskExport {
+    private static final Logger logger = Logger.getLogger(DiskExport.class.getCanonicalName());
+
+    private final DCATAPExporter exporter;
+
+    DiskExport(DCATAPExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    void write(JsonObject datasetJson, OutputStream outputStream, ExportConfig config) throws IOException {
+        Path directory = Files.createTempDirectory("dcat-ap-export");
+        Dataset dataset = TDB2Factory.connectDataset(directory.toString());
+        ExportMetrics.Recording recording = ExportMetrics.current();
+        try {
+            if (recording != null) {
+                recording.begin(ExportMetrics.Phase.MAP);
+            }
+            Txn.executeWrite(dataset, () -> map(dataset.getDefaultModel(), datasetJson, config));
+            if (recording != null) {
+                recording.end(ExportMetrics.Phase.MAP);
+                recording.begin(ExportMetrics.Phase.SERIALIZE);
+            }
+            Txn.executeRead(dataset, () -> {
+                Model model = dataset.getDefaultModel();
+                if (recording != null) {
+                    recording.setTriples(model.size());
+                }
+                if (config.getFormat() == ExportFormat.JSON_LD) {
+                    JsonLdWriter.writeIndexed(model.getGraph(), outputStream);
+                } else {
+                    DCATAPExporter.writeModel(model, outputStream, config.getFormat());
+                }
+            });
+            if (recording != null) {
+                recording.end(ExportMetrics.Phase.SERIALIZE);
+            }
+        } finally {
+            TDBInternal.expel(dataset.asDatasetGraph());
+            delete(directory);
+        }
+    }
+
+    private void map(Model model, JsonObject datasetJson, ExportConfig config) {
+        int files = datasetJson.getJsonObject("datasetVersion").getJsonArray("files").size();
+        if (files >= config.getParallelThreshold()) {
+            // the triples are added on this thread, the store does not need to be thread safe
+            new ParallelExport(exporter).mapDatasetJson(model, datasetJson, config);
+        } else {
+            exporter.mapDatasetJson(model, datasetJson, config);
+        }
+    }
+
+    private static void delete(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            // not a reason to fail the export, the temp directory is cleaned up eventually
+            logger.log(Level.WARNING, "Could not remove temporary export store " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package io.gdcc.export.dcatap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache of serialized exports, keyed by the dataset fingerprint.
+ *
+ * The in-memory tier is an LRU bounded by the total number of bytes of the cached exports.
+ * Optionally there is a directory on disk as a second tier, that survives restarts;
+ * it is bounded by bytes as well, the least recently used files are removed first
+ * (a hit sets the modification time of the file, so that is the time of the last use).
+ * Disk problems are logged and treated as a miss, they never make an export fail.
+ */
+public class ExportCache {
+    private static final Logger logger = Logger.getLogger(ExportCache.class.getCanonicalName());
+
+    // System properties to enable the cache in Dataverse
+    static final String MAX_BYTES_PROPERTY = "dataverse.dcat-ap.cache.max-bytes";
+    static final String DIRECTORY_PROPERTY = "dataverse.dcat-ap.cache.directory";
+    static final String MAX_DISK_BYTES_PROPERTY = "dataverse.dcat-ap.cache.max-disk-bytes";
+
+    private static final String FILE_SUFFIX = ".export";
+
+    private static ExportCache shared = null;
+    private static boolean sharedCreated = false;
+
+    private final long maxBytes;
+    private final Path directory;
+    private final long maxDiskBytes;
+
+    // access ordered, so iteration starts at the least recently used
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+    private final AtomicLong diskBytes = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /** In-memory cache only. */
+    public ExportCache(long maxBytes) {
+        this(maxBytes, null, 0);
+    }
+
+    /**
+     * @param maxBytes maximum total size of the exports in memory
+     * @param directory directory for the disk tier, or null for no disk tier
+     * @param maxDiskBytes maximum total size of the exports on disk
+     */
+    public ExportCache(long maxBytes, Path directory, long maxDiskBytes) {
+        this.maxBytes = maxBytes;
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+                diskBytes.set(listDiskEntries().stream().mapToLong(DiskEntry::getSize).sum());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot use export cache directory " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Creates the cache from the system properties, or returns null if it is not enabled.
+     * It is enabled by setting the maximum number of bytes in memory.
+     */
+    static ExportCache fromSystemProperties() {
+        return fromProperties(System.getProperties());
+    }
+
+    /**
+     * Creates the cache from the properties, or returns null if it is not enabled.
+     * Invalid values are logged and ignored, like in ExportConfig.load: 
+     * an invalid maximum disables the cache, a directory that cannot be used only the disk tier.
+     */
+    static ExportCache fromProperties(Properties properties) {
+        String maxBytesValue = properties.getProperty(MAX_BYTES_PROPERTY);
+        if (maxBytesValue == null || maxBytesValue.isBlank()) {
+            return null;
+        }
+        long maxBytes;
+        try {
+            maxBytes = Long.parseLong(maxBytesValue.trim());
+        } catch (NumberFormatException e) {
+            logger.warning("Ignoring " + MAX_BYTES_PROPERTY + ", the export cache is disabled: " + e.getMessage());
+            return null;
+        }
+        String directory = properties.getProperty(DIRECTORY_PROPERTY);
+        if (directory == null || directory.isBlank()) {
+            return new ExportCache(maxBytes);
+        }
+        long maxDiskBytes = 10 * maxBytes;
+        String maxDiskBytesValue = properties.getProperty(MAX_DISK_BYTES_PROPERTY);
+        if (maxDiskBytesValue != null && !maxDiskBytesValue.isBlank()) {
+            try {
+                maxDiskBytes = Long.parseLong(maxDiskBytesValue.trim());
+            } catch (NumberFormatException e) {
+                logger.warning("Ignoring " + MAX_DISK_BYTES_PROPERTY + ": " + e.getMessage());
+            }
+        }
+        try {
+            return new ExportCache(maxBytes, Paths.get(directory), maxDiskBytes);
+        } catch (InvalidPathException | UncheckedIOException e) {
+            logger.warning("Ignoring " + DIRECTORY_PROPERTY + ", the export cache is in memory only: " + e.getMessage());
+            return new ExportCache(maxBytes);
+        }
+    }
+
+    /**
+     * The cache from the system properties, shared by all exporters of the plugin 
+     * (the output format is part of the key), or null if it is not enabled.
+     */
+    static synchronized ExportCache shared() {
+        if (!sharedCreated) {
+            shared = fromSystemProperties();
+            sharedCreated = true;
+        }
+        return shared;
+    }
+
+    /** The largest single export that will be cached, larger ones would push out too much. */
+    public long getMaxEntryBytes() {
+        return maxBytes / 4;
+    }
+
+    /** The cached export, or null if it is not in the cache. */
+    public byte[] get(String key) {
+        synchronized (this) {
+            byte[] bytes = entries.get(key);
+            if (bytes != null) {
+                hits.incrementAndGet();
+                return bytes;
+            }
+        }
+        byte[] bytes = readFromDisk(key);
+        if (bytes != null) {
+            diskHits.incrementAndGet();
+            putInMemory(key, bytes);
+            return bytes;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String key, byte[] bytes) {
+        if (bytes.length > getMaxEntryBytes()) {
+            return;
+        }
+        putInMemory(key, bytes);
+        writeToDisk(key, bytes);
+    }
+
+    private synchronized void putInMemory(String key, byte[] bytes) {
+        byte[] previous = entries.put(key, bytes);
+        if (previous != null) {
+            totalBytes -= previous.length;
+        }
+        totalBytes += bytes.length;
+        Iterator<Map.Entry<String, byte[]>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, byte[]> eldest = iterator.next();
+            totalBytes -= eldest.getValue().length;
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private byte[] readFromDisk(String key) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = directory.resolve(key + FILE_SUFFIX);
+        try {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            byte[] bytes = Files.readAllBytes(file);
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return bytes;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not read cached export " + file, e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, byte[] bytes) {
+        if (directory == null) {
+            return;
+        }
+        Path file = directory.resolve(key + FILE_SUFFIX);
+        try {
+            if (Files.exists(file)) {
+                return; // same key, so same content
+            }
+            // write to a temporary file first, so a reader never sees a partial export
+            Path tmp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (diskBytes.addAndGet(bytes.length) > maxDiskBytes) {
+                trimDisk();
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not write cached export " + file, e);
+        }
+    }
+
+    private synchronized void trimDisk() throws IOException {
+        List<DiskEntry> diskEntries = listDiskEntries();
+        diskEntries.sort((a, b) -> a.modified.compareTo(b.modified));
+        long size = diskEntries.stream().mapToLong(DiskEntry::getSize).sum();
+        for (DiskEntry entry : diskEntries) {
+            if (size <= maxDiskBytes) {
+                break;
+            }
+            if (Files.deleteIfExists(entry.path)) {
+                size -= entry.size;
+                evictions.incrementAndGet();
+            }
+        }
+        diskBytes.set(size);
+    }
+
+    private List<DiskEntry> listDiskEntries() throws IOException {
+        List<DiskEntry> diskEntries = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                diskEntries.add(new DiskEntry(file, Files.size(file), Files.getLastModifiedTime(file)));
+            }
+        }
+        return diskEntries;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized long getSize() {
+        return totalBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    private static final class DiskEntry {
+        final Path path;
+        final long size;
+        final FileTime modified;
+
+        DiskEntry(Path path, long size, FileTime modified) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        long getSize() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package io.gdcc.export.dcatap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * How to export: output format, whether to stream, whether to gzip,
+ * from how many files to map them in parallel, which page of the distributions,
+ * whether the output is canonical,
+ * and the installation specific parts of the mapping: the file access URL and the metadata language.
+ *
+ * Immutable, so one configuration can be used by any number of concurrent exports;
+ * use the 'with' methods to get a changed copy for a single call.
+ *
+ * The configuration of the installation is loaded once, see configured(),
+ * from a properties file named with the JVM option `dataverse.dcat-ap.config-file`,
+ * and from JVM options with the same names, which override the file.
+ */
+public final class ExportConfig {
+    private static final Logger logger = Logger.getLogger(ExportConfig.class.getCanonicalName());
+
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 10000;
+    // the schema.org export of Dataverse uses this too, when it does not know the site URL
+    public static final String DEFAULT_FILE_ACCESS_BASE_URL = "http://localhost:8080/api/access/datafile/";
+    public static final String DEFAULT_METADATA_LANGUAGE = "en";
+    public static final String DEFAULT_PAGE_URL_TEMPLATE = "{persistentUrl}?page={page}";
+    public static final ExportConfig DEFAULT = new ExportConfig(ExportFormat.RDF_XML, false, false,
+            DEFAULT_PARALLEL_THRESHOLD, DEFAULT_FILE_ACCESS_BASE_URL, DEFAULT_METADATA_LANGUAGE,
+            0, 1, DEFAULT_PAGE_URL_TEMPLATE, false);
+
+    // JVM option with the path of the properties file
+    static final String CONFIG_FILE_PROPERTY = "dataverse.dcat-ap.config-file";
+    // the names of the settings, in the file and as JVM options
+    static final String STREAMING_PROPERTY = "dataverse.dcat-ap.streaming";
+    static final String PARALLEL_THRESHOLD_PROPERTY = "dataverse.dcat-ap.parallel-threshold";
+    static final String FILE_ACCESS_BASE_URL_PROPERTY = "dataverse.dcat-ap.file-access-base-url";
+    static final String METADATA_LANGUAGE_PROPERTY = "dataverse.dcat-ap.metadata-language";
+    // no longer a setting, only to warn when it is still configured
+    static final String PAGE_SIZE_PROPERTY = "dataverse.dcat-ap.page-size";
+    static final String PAGE_URL_TEMPLATE_PROPERTY = "dataverse.dcat-ap.page-url-template";
+    static final String CANONICAL_PROPERTY = "dataverse.dcat-ap.canonical";
+
+    private static volatile ExportConfig configured = null;
+
+    private final ExportFormat format;
+    private final boolean streaming;
+    private final boolean gzip;
+    private final int parallelThreshold;
+    private final String fileAccessBaseUrl;
+    private final String metadataLanguage;
+    private final int pageSize;
+    private final int page;
+    private final String pageUrlTemplate;
+    private final boolean canonical;
+
+    private ExportConfig(ExportFormat format, boolean streaming, boolean gzip, int parallelThreshold,
+            String fileAccessBaseUrl, String metadataLanguage, int pageSize, int page, String pageUrlTemplate,
+            boolean canonical) {
+        this.format = format;
+        this.streaming = streaming;
+        this.gzip = gzip;
+        this.parallelThreshold = parallelThreshold;
+        this.fileAccessBaseUrl = fileAccessBaseUrl;
+        this.metadataLanguage = metadataLanguage;
+        this.pageSize = pageSize;
+        this.page = page;
+        this.pageUrlTemplate = pageUrlTemplate;
+        this.canonical = canonical;
+    }
+
+    /**
+     * The configuration of this installation, loaded on first use.
+     * The defaults are those of DEFAULT, so without any settings the two are the same.
+     */
+    public static ExportConfig configured() {
+        ExportConfig config = configured;
+        if (config == null) {
+            synchronized (ExportConfig.class) {
+                if (configured == null) {
+                    configured = load(System.getProperties());
+                }
+                config = configured;
+            }
+        }
+        return config;
+    }
+
+    /** Load from the file named in the properties, if any, with the properties overriding the file. */
+    static ExportConfig load(Properties properties) {
+        Properties settings = new Properties();
+        String configFile = properties.getProperty(CONFIG_FILE_PROPERTY);
+        if (configFile != null && !configFile.isBlank()) {
+            try (InputStream in = Files.newInputStream(Path.of(configFile))) {
+                settings.load(in);
+            } catch (IOException e) {
+                // the exporter still works, just not for this installation
+                logger.log(Level.WARNING, "Could not read the DCAT-AP export configuration " + configFile
+                        + ", using the defaults", e);
+            }
+        }
+        for (String name : new String[] {STREAMING_PROPERTY, PARALLEL_THRESHOLD_PROPERTY,
+                FILE_ACCESS_BASE_URL_PROPERTY, METADATA_LANGUAGE_PROPERTY, PAGE_SIZE_PROPERTY,
+                PAGE_URL_TEMPLATE_PROPERTY, CANONICAL_PROPERTY}) {
+            String value = properties.getProperty(name);
+            if (value != null) {
+                settings.setProperty(name, value);
+            }
+        }
+
+        ExportConfig config = DEFAULT;
+        String streaming = settings.getProperty(STREAMING_PROPERTY);
+        if (streaming != null) {
+            config = config.withStreaming(Boolean.parseBoolean(streaming.trim()));
+        }
+        String canonical = settings.getProperty(CANONICAL_PROPERTY);
+        if (canonical != null) {
+            config = config.withCanonical(Boolean.parseBoolean(canonical.trim()));
+        }
+        String parallelThreshold = settings.getProperty(PARALLEL_THRESHOLD_PROPERTY);
+        if (parallelThreshold != null) {
+            try {
+                config = config.withParallelThreshold(Integer.parseInt(parallelThreshold.trim()));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Ignoring " + PARALLEL_THRESHOLD_PROPERTY + ": " + e.getMessage());
+            }
+        }
+        String baseUrl = settings.getProperty(FILE_ACCESS_BASE_URL_PROPERTY);
+        if (baseUrl != null && !baseUrl.isBlank()) {
+            config = config.withFileAccessBaseUrl(baseUrl.trim());
+        }
+        String language = settings.getProperty(METADATA_LANGUAGE_PROPERTY);
+        if (language != null) {
+            config = config.withMetadataLanguage(language.trim());
+        }
+        // paging is only per call: Dataverse only stores the export of the first page, and cannot serve the others
+        if (settings.getProperty(PAGE_SIZE_PROPERTY) != null) {
+            logger.warning("Ignoring " + PAGE_SIZE_PROPERTY + ": paging would truncate the Dataverse exports "
+                    + "to the first page of the distributions, use ExportConfig.withPaging for a single export");
+        }
+        String pageUrlTemplate = settings.getProperty(PAGE_URL_TEMPLATE_PROPERTY);
+        if (pageUrlTemplate != null && !pageUrlTemplate.isBlank()) {
+            try {
+                config = config.withPageUrlTemplate(pageUrlTemplate.trim());
+            } catch (IllegalArgumentException e) {
+                logger.warning("Ignoring " + PAGE_URL_TEMPLATE_PROPERTY + ": " + e.getMessage());
+            }
+        }
+        logger.fine("DCAT-AP export configuration: " + config);
+        return config;
+    }
+
+    public ExportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * When streaming, triples are written as soon as they are mapped,
+     * instead of building the complete model first.
+     * JSON-LD cannot be streamed, so it will still build the model.
+     * N-Triples, N-Quads and the binary formats are always streamed.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Canonical output is the same, byte for byte, for the same input:
+     * blank nodes are replaced by IRIs made from their content, so equal nodes become one,
+     * and the triples are written sorted. This needs the complete model, so it is never streamed.
+     * See CanonicalWriter.
+     */
+    public boolean isCanonical() {
+        return canonical;
+    }
+
+    /** Whether the output is compressed with gzip, while it is written. */
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    /**
+     * The content encoding of the output, to be used with the media type of the format;
+     * 'gzip' or null when not compressed.
+     */
+    public String getContentEncoding() {
+        return gzip ? "gzip" : null;
+    }
+
+    /**
+     * Datasets with at least this number of files get their files mapped in parallel, in chunks.
+     * When streaming Turtle or RDF/XML, and for the formats that are always streamed,
+     * the chunks are also serialized in parallel.
+     * Use Integer.MAX_VALUE to always map on the calling thread.
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * The URL of the file access API of the installation, ending with a slash,
+     * the id of the file is appended to it for the IRI of the distribution.
+     */
+    public String getFileAccessBaseUrl() {
+        return fileAccessBaseUrl;
+    }
+
+    /**
+     * The language tag of the metadata text (titles, descriptions, names...),
+     * empty for text without a language tag.
+     */
+    public String getMetadataLanguage() {
+        return metadataLanguage;
+    }
+
+    /** Whether only one page of the distributions is exported, see getPageSize. */
+    public boolean isPaged() {
+        return pageSize > 0;
+    }
+
+    /**
+     * The maximum number of distributions in a page, 0 when not paged.
+     * The first page has the dataset properties too, every page has Hydra links to the other pages.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /** The page to export, starting at 1. */
+    public int getPage() {
+        return page;
+    }
+
+    /** The IRI of a page, {persistentUrl} and {page} are replaced by the dataset persistent URL and the page number. */
+    public String getPageUrlTemplate() {
+        return pageUrlTemplate;
+    }
+
+    /** The IRI of the given page of the dataset. */
+    String pageUrl(String persistentUrl, int page) {
+        return pageUrlTemplate.replace("{persistentUrl}", persistentUrl).replace("{page}", Integer.toString(page));
+    }
+
+    public ExportConfig withFormat(ExportFormat format) {
+        return new ExportConfig(format, streaming, gzip, parallelThreshold, fileAccessBaseUrl, metadataLanguage,
+                pageSize, page, pageUrlTemplate, canonical);
+    }
+
+    public ExportConfig withStreaming(boolean streaming) {
+        return new ExportConfig(format, streaming, gzip, parallelThreshold, fileAccessBaseUrl, metadataLanguage,
+                pageSize, page, pageUrlTemplate, canonical);
+    }
+
+    public ExportConfig withCanonical(boolean canonical) {
+        return new ExportConfig(format, streaming, gzip, parallelThreshold, fileAccessBaseUrl, metadataLanguage,
+                pageSize, page, pageUrlTemplate, canonical);
+    }
+
+    public ExportConfig withGzip(boolean gzip) {
+        return new ExportConfig(format, streaming, gzip, parallelThreshold, fileAccessBaseUrl, metadataLanguage,
+                pageSize, page, pageUrlTemplate, canonical);
+    }
+
+    public ExportConfig withParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("Parallel threshold must be at least 1: " + parallelThreshold);
+        }
+        return new ExportConfig(format, streaming, gzip, parallelThreshold, fileAccessBaseUrl, metadataLanguage,
+                pageSize, page, pageUrlTemplate, canonical);
+    }
+
+    /** The base URL of the file access API, a slash is added when it does not end with one. */
+    public ExportConfig withFileAccessBaseUrl(String fileAccessBaseUrl) {
+        if (fileAccessBaseUrl == null || fileAccessBaseUrl.isEmpty()) {
+            throw new IllegalArgumentException("File access base URL must not be empty");
+        }
+        String baseUrl = fileAccessBaseUrl.endsWith("/") ? fileAccessBaseUrl : fileAccessBaseUrl + "/";
+        return new ExportConfig(format, streaming, gzip, parallelThreshold, baseUrl, metadataLanguage,
+                pageSize, page, pageUrlTemplate, canonical);
+    }
+
+    public ExportConfig withMetadataLanguage(String metadataLanguage) {
+        if (metadataLanguage == null) {
+            throw new IllegalArgumentException("Metadata language must not be null, use an empty string for none");
+        }
+        return new ExportConfig(format, streaming, gzip, parallelThreshold, fileAccessBaseUrl, metadataLanguage,
+                pageSize, page, pageUrlTemplate, canonical);
+    }
+
+    /** Export only the given page, of pageSize distributions; a pageSize of 0 exports all of them. */
+    public ExportConfig withPaging(int pageSize, int page) {
+        if (pageSize < 0) {
+            throw new IllegalArgumentException("Page size must not be negative: " + pageSize);
+        }
+        if (page < 1) {
+            throw new IllegalArgumentException("Page must be at least 1: " + page);
+        }
+        return new ExportConfig(format, streaming, gzip, parallelThreshold, fileAccessBaseUrl, metadataLanguage,
+                pageSize, page, pageUrlTemplate, canonical);
+    }
+
+    public ExportConfig withPageUrlTemplate(String pageUrlTemplate) {
+        if (pageUrlTemplate == null || !pageUrlTemplate.contains("{page}")) {
+            throw new IllegalArgumentException("Page URL template must contain {page}: " + pageUrlTemplate);
+        }
+        return new ExportConfig(format, streaming, gzip, parallelThreshold, fileAccessBaseUrl, metadataLanguage,
+                pageSize, page, pageUrlTemplate, canonical);
+    }
+
+    @Override
+    public String toString() {
+        return "ExportConfig[format=" + format + ", streaming=" + streaming + ", gzip=" + gzip
+                + ", parallelThreshold=" + parallelThreshold + ", fileAccessBaseUrl=" + fileAccessBaseUrl
+                + ", metadataLanguage=" + metadataLanguage + ", pageSize=" + pageSize + ", page=" + page
+                + ", pageUrlTemplate=" + pageUrlTemplate + ", canonical=" + canonical + "]";
+    }
+}
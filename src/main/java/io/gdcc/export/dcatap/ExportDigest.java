@@ -0,0 +1,75 @@
+package io.gdcc.export.dcatap;
+
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * The ETag and the content digest of an export, to answer conditional requests of harvesters.
+ *
+ * The ETag is made from the fingerprint of the dataset version and the configuration (see DatasetFingerprint),
+ * so it is known before exporting: DCATAPExporter.getETag gives the same ETag without mapping or serializing.
+ * The fingerprint includes the version of the mapping, so a new version of the exporter that gives other output
+ * for the same dataset version also gives another ETag, and harvesters do not get a 304 for a changed document.
+ * It is a weak ETag, because the same metadata can give other bytes (new blank node labels, another order),
+ * except for canonical output (see ExportConfig.isCanonical), which always gives the same bytes.
+ * Compressed output has its own ETag, with a -gzip suffix.
+ *
+ * The digest is the SHA-256 of the bytes that were written, computed while writing.
+ */
+public final class ExportDigest {
+    private final String etag;
+    private final byte[] digest;
+
+    ExportDigest(String etag, byte[] digest) {
+        this.etag = etag;
+        this.digest = digest.clone();
+    }
+
+    /** The ETag of the fingerprint, strong only for canonical output. */
+    static String etag(String fingerprint, ExportConfig config) {
+        String tag = '"' + fingerprint + (config.isGzip() ? "-gzip" : "") + '"';
+        return config.isCanonical() ? tag : "W/" + tag;
+    }
+
+    /** The value for the ETag header. */
+    public String getETag() {
+        return etag;
+    }
+
+    /** The SHA-256 of the output, hex encoded. */
+    public String getDigest() {
+        return HexFormat.of().formatHex(digest);
+    }
+
+    /** The value for a Repr-Digest header (RFC 9530), like sha-256=:base64: */
+    public String getReprDigest() {
+        return "sha-256=:" + Base64.getEncoder().encodeToString(digest) + ":";
+    }
+
+    /**
+     * Whether the value of an If-None-Match header matches the given ETag,
+     * so the answer can be 304 Not Modified. Uses the weak comparison, as If-None-Match does.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaqueTag = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaqueTag(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    @Override
+    public String toString() {
+        return "ExportDigest[etag=" + etag + ", sha-256=" + getDigest() + "]";
+    }
+}
@@ -0,0 +1,45 @@
+package io.gdcc.export.dcatap;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event for one export, from the call of exportDataset until it returns.
+ * The stack trace points to the caller in Dataverse (harvesting, download, export job).
+ */
+@Name("io.gdcc.export.dcatap.Export")
+@Label("DCAT-AP Export")
+@Category({"Dataverse", "DCAT-AP"})
+@Description("Export of a dataset to DCAT-AP")
+class ExportEvent extends Event {
+    @Label("Persistent URL")
+    String persistentUrl;
+
+    @Label("Output Language")
+    String outputLang;
+
+    @Label("Streaming")
+    boolean streaming;
+
+    @Label("Strategy")
+    @Description("In memory, streaming or on disk, as planned by the ExportPlanner")
+    String strategy;
+
+    @Label("Files")
+    long files;
+
+    @Label("Triples")
+    long triples;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytes;
+
+    @Label("Error")
+    @Description("Simple class name of the exception that made the export fail, null when it succeeded")
+    String error;
+}
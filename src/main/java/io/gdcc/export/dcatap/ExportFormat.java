@@ -0,0 +1,68 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * The output formats of the exporter, with the Jena language name and the media type.
+ */
+public enum ExportFormat {
+    // Note that we need XML in the OAI-PMH harvesting output!
+    RDF_XML("RDF/XML", MediaType.APPLICATION_XML),
+    TURTLE("TURTLE", "text/turtle"),
+    JSON_LD("JSON-LD", "application/ld+json"),
+    // line based, cheapest to produce and to consume, for bulk harvesting
+    NTRIPLES("N-TRIPLES", "application/n-triples", true),
+    NQUADS("N-QUADS", "application/n-quads", true),
+    // binary, with shared string tables, much faster to parse, for harvesting between machines
+    RDF_THRIFT("RDF-THRIFT", "application/rdf+thrift", true),
+    RDF_PROTO("RDF-PROTO", "application/rdf+protobuf", true);
+
+    private final String outputLang;
+    private final String mediaType;
+    private final boolean alwaysStreamed;
+
+    ExportFormat(String outputLang, String mediaType) {
+        this(outputLang, mediaType, false);
+    }
+
+    ExportFormat(String outputLang, String mediaType, boolean alwaysStreamed) {
+        this.outputLang = outputLang;
+        this.mediaType = mediaType;
+        this.alwaysStreamed = alwaysStreamed;
+    }
+
+    /** The language name as used by Jena's Model.write. */
+    public String getOutputLang() {
+        return outputLang;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * One statement per line (or binary row), without anything that needs the whole graph.
+     * These are always written as the triples are mapped, streaming or not,
+     * and exports in these formats can simply be concatenated.
+     */
+    public boolean isAlwaysStreamed() {
+        return alwaysStreamed;
+    }
+
+    /**
+     * The format for the Jena language name, an empty name is the default RDF/XML.
+     *
+     * @throws IllegalArgumentException if it is not one of our formats
+     */
+    public static ExportFormat fromOutputLang(String outputLang) {
+        if (outputLang == null || outputLang.isEmpty()) {
+            return RDF_XML;
+        }
+        for (ExportFormat format : values()) {
+            if (format.outputLang.equals(outputLang)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported output language: " + outputLang);
+    }
+}
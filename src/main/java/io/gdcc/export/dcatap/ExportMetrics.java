@@ -0,0 +1,335 @@
+package io.gdcc.export.dcatap;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and histograms of all exports, registered as an MXBean.
+ *
+ * Every export gets a Recording with the time spent in each phase:
+ * fetching the dataset JSON, mapping it to RDF, serializing it and flushing the output.
+ * When streaming, mapping and serializing are done in one pass, that pass is recorded as serialize.
+ * Recording is a few calls to System.nanoTime and some atomic increments per export,
+ * so it is always on.
+ * The same export and phases are also emitted as JDK Flight Recorder events (ExportEvent, ExportPhaseEvent),
+ * so profiles of continuous recordings can be attributed to datasets and phases.
+ *
+ * Exports slower than the threshold are logged with the dataset and the time of each phase,
+ * the threshold is set with the JVM option `dataverse.dcat-ap.metrics.slow-export-millis`, or over JMX.
+ */
+public class ExportMetrics implements ExportMetricsMXBean {
+    private static final Logger logger = Logger.getLogger(ExportMetrics.class.getCanonicalName());
+
+    static final String OBJECT_NAME = "io.gdcc.export.dcatap:type=ExportMetrics";
+    // System property for the slow export threshold
+    static final String SLOW_EXPORT_PROPERTY = "dataverse.dcat-ap.metrics.slow-export-millis";
+    static final long DEFAULT_SLOW_EXPORT_MILLIS = 10000;
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    public enum Phase {
+        FETCH, MAP, SERIALIZE, FLUSH
+    }
+
+    private static final ExportMetrics INSTANCE = new ExportMetrics(
+            Long.getLong(SLOW_EXPORT_PROPERTY, DEFAULT_SLOW_EXPORT_MILLIS));
+    private static volatile boolean registered = false;
+
+    // the recording of the export on this thread, for the parts that do not get it passed
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    private final LongAdder exports = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final Map<Phase, Histogram> phases = new EnumMap<>(Phase.class);
+    private final Histogram total = new Histogram();
+    private final Histogram triples = new Histogram();
+    private final Histogram bytes = new Histogram();
+    private final Histogram files = new Histogram();
+    private volatile long slowExportThresholdMillis;
+
+    ExportMetrics(long slowExportThresholdMillis) {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new Histogram());
+        }
+        this.slowExportThresholdMillis = slowExportThresholdMillis;
+    }
+
+    /** The metrics of all exports in this JVM, registered with the platform MBean server on first use. */
+    public static ExportMetrics get() {
+        if (!registered) {
+            register();
+        }
+        return INSTANCE;
+    }
+
+    private static synchronized void register() {
+        if (registered) {
+            return;
+        }
+        registered = true;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException e) {
+            // for instance when the plugin is loaded twice, the metrics still work, just not over JMX
+            logger.log(Level.WARNING, "Could not register the DCAT-AP export metrics as " + OBJECT_NAME, e);
+        }
+    }
+
+    /** Start recording an export on this thread, call finish or fail on the recording when done. */
+    Recording start(ExportConfig config) {
+        Recording recording = new Recording(this, config);
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    /** The recording of the export running on this thread, or null. */
+    static Recording current() {
+        return CURRENT.get();
+    }
+
+    //--- MXBean
+
+    @Override
+    public long getExportCount() {
+        return exports.sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    @Override
+    public Map<String, Long> getErrorCountsByType() {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((type, count) -> counts.put(type, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public HistogramSnapshot getFetchLatency() {
+        return phases.get(Phase.FETCH).snapshot(NANOS_PER_MILLI);
+    }
+
+    @Override
+    public HistogramSnapshot getMapLatency() {
+        return phases.get(Phase.MAP).snapshot(NANOS_PER_MILLI);
+    }
+
+    @Override
+    public HistogramSnapshot getSerializeLatency() {
+        return phases.get(Phase.SERIALIZE).snapshot(NANOS_PER_MILLI);
+    }
+
+    @Override
+    public HistogramSnapshot getFlushLatency() {
+        return phases.get(Phase.FLUSH).snapshot(NANOS_PER_MILLI);
+    }
+
+    @Override
+    public HistogramSnapshot getTotalLatency() {
+        return total.snapshot(NANOS_PER_MILLI);
+    }
+
+    @Override
+    public HistogramSnapshot getTriplesPerExport() {
+        return triples.snapshot(1);
+    }
+
+    @Override
+    public HistogramSnapshot getBytesPerExport() {
+        return bytes.snapshot(1);
+    }
+
+    @Override
+    public HistogramSnapshot getFilesPerExport() {
+        return files.snapshot(1);
+    }
+
+    @Override
+    public long getSlowExportThresholdMillis() {
+        return slowExportThresholdMillis;
+    }
+
+    @Override
+    public void setSlowExportThresholdMillis(long millis) {
+        this.slowExportThresholdMillis = millis;
+    }
+
+    @Override
+    public void reset() {
+        exports.reset();
+        errors.clear();
+        phases.values().forEach(Histogram::reset);
+        total.reset();
+        triples.reset();
+        bytes.reset();
+        files.reset();
+    }
+
+    //---
+
+    private void record(Recording recording, long totalNanos) {
+        exports.increment();
+        for (Phase phase : Phase.values()) {
+            long nanos = recording.phaseNanos[phase.ordinal()];
+            if (nanos >= 0) {
+                phases.get(phase).record(nanos);
+            }
+        }
+        total.record(totalNanos);
+        if (recording.triples >= 0) {
+            triples.record(recording.triples);
+        }
+        if (recording.bytes >= 0) {
+            bytes.record(recording.bytes);
+        }
+        if (recording.files >= 0) {
+            files.record(recording.files);
+        }
+        long threshold = slowExportThresholdMillis;
+        if (threshold > 0 && totalNanos >= threshold * 1_000_000L) {
+            logger.warning("Slow DCAT-AP export of " + recording.dataset + ": " + recording.describe(totalNanos));
+        }
+    }
+
+    private void recordError(Throwable error) {
+        errors.computeIfAbsent(error.getClass().getSimpleName(), type -> new LongAdder()).increment();
+    }
+
+    /**
+     * The phases and sizes of one export, only used by the thread doing the export.
+     * Phases, sizes and the dataset that are not known are not recorded.
+     */
+    static class Recording {
+        private final ExportMetrics metrics;
+        private final ExportConfig config;
+        private final ExportEvent event = new ExportEvent();
+        private final long start = System.nanoTime();
+        private final long[] phaseNanos = new long[Phase.values().length];
+        private String dataset = "(unknown dataset)";
+        private long triples = -1;
+        private long bytes = -1;
+        private long files = -1;
+        private String error = null;
+        private String strategy = null;
+        private boolean finished = false;
+        // phases do not overlap, so there is only one running at a time
+        private Phase phase;
+        private long phaseStart;
+        private ExportPhaseEvent phaseEvent;
+
+        Recording(ExportMetrics metrics, ExportConfig config) {
+            this.metrics = metrics;
+            this.config = config;
+            Arrays.fill(phaseNanos, -1);
+            event.begin();
+        }
+
+        void begin(Phase phase) {
+            this.phase = phase;
+            phaseEvent = new ExportPhaseEvent();
+            phaseEvent.begin();
+            phaseStart = System.nanoTime();
+        }
+
+        /**
+         * Add the time since begin to the phase.
+         *
+         * @throws IllegalStateException if it is not the running phase
+         */
+        void end(Phase phase) {
+            if (phase != this.phase) {
+                throw new IllegalStateException("End of phase " + phase + ", but " + this.phase + " is running");
+            }
+            this.phase = null;
+            long nanos = System.nanoTime() - phaseStart;
+            int i = phase.ordinal();
+            phaseNanos[i] = phaseNanos[i] < 0 ? nanos : phaseNanos[i] + nanos;
+            phaseEvent.end();
+            if (phaseEvent.shouldCommit()) {
+                phaseEvent.phase = phase.name().toLowerCase();
+                phaseEvent.persistentUrl = dataset;
+                phaseEvent.outputLang = config.getFormat().getOutputLang();
+                phaseEvent.commit();
+            }
+        }
+
+        void setDataset(String dataset) {
+            this.dataset = dataset;
+        }
+
+        /** The persistent URL of the dataset, "(unknown dataset)" until it is known. */
+        String getDataset() {
+            return dataset;
+        }
+
+        void setStrategy(String strategy) {
+            this.strategy = strategy;
+        }
+
+        void setTriples(long triples) {
+            this.triples = triples;
+        }
+
+        void setBytes(long bytes) {
+            this.bytes = bytes;
+        }
+
+        void setFiles(long files) {
+            this.files = files;
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                CURRENT.remove();
+                metrics.record(this, System.nanoTime() - start);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.persistentUrl = dataset;
+                    event.outputLang = config.getFormat().getOutputLang();
+                    event.streaming = config.isStreaming();
+                    event.strategy = strategy;
+                    event.files = files;
+                    event.triples = triples;
+                    event.bytes = bytes;
+                    event.error = error;
+                    event.commit();
+                }
+            }
+        }
+
+        void fail(Throwable error) {
+            this.error = error.getClass().getSimpleName();
+            metrics.recordError(error);
+            finish();
+        }
+
+        String describe(long totalNanos) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(totalNanos / 1_000_000).append(" ms (");
+            for (Phase phase : Phase.values()) {
+                if (phase.ordinal() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(phase.name().toLowerCase()).append(' ');
+                long nanos = phaseNanos[phase.ordinal()];
+                sb.append(nanos < 0 ? "-" : Long.toString(nanos / 1_000_000)).append(" ms");
+            }
+            sb.append("), ").append(files < 0 ? "?" : Long.toString(files)).append(" files, ")
+                    .append(triples < 0 ? "?" : Long.toString(triples)).append(" triples, ")
+                    .append(bytes < 0 ? "?" : Long.toString(bytes)).append(" bytes");
+            return sb.toString();
+        }
+    }
+}
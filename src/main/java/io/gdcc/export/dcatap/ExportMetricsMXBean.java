@@ -0,0 +1,39 @@
+package io.gdcc.export.dcatap;
+
+import java.util.Map;
+
+/**
+ * The export metrics as shown over JMX, latencies are in milliseconds.
+ */
+public interface ExportMetricsMXBean {
+
+    long getExportCount();
+
+    long getErrorCount();
+
+    /** Number of failed exports by the simple class name of the exception. */
+    Map<String, Long> getErrorCountsByType();
+
+    HistogramSnapshot getFetchLatency();
+
+    HistogramSnapshot getMapLatency();
+
+    HistogramSnapshot getSerializeLatency();
+
+    HistogramSnapshot getFlushLatency();
+
+    HistogramSnapshot getTotalLatency();
+
+    HistogramSnapshot getTriplesPerExport();
+
+    HistogramSnapshot getBytesPerExport();
+
+    HistogramSnapshot getFilesPerExport();
+
+    /** Exports that take longer are logged with their phases, 0 disables this. */
+    long getSlowExportThresholdMillis();
+
+    void setSlowExportThresholdMillis(long millis);
+
+    void reset();
+}
@@ -0,0 +1,28 @@
+package io.gdcc.export.dcatap;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for one phase of an export: fetch, map, serialize or flush.
+ * The Jena and JSON frames in the profile that fall in it belong to that phase of that dataset.
+ */
+@Name("io.gdcc.export.dcatap.ExportPhase")
+@Label("DCAT-AP Export Phase")
+@Category({"Dataverse", "DCAT-AP"})
+@Description("A phase of a DCAT-AP export")
+@StackTrace(false)
+class ExportPhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Persistent URL")
+    String persistentUrl;
+
+    @Label("Output Language")
+    String outputLang;
+}
@@ -0,0 +1,162 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decides how a dataset is exported, before it is mapped, from the size of the dataset JSON.
+ *
+ * Small datasets are mapped to an in-memory model, that is the fastest and gives the prettiest output.
+ * When the estimated size of the model is over the heap budget, the triples are streamed to the output,
+ * or, for formats that need the whole graph (JSON-LD), mapped to a TDB2 store in a temporary directory.
+ * Nothing is planned for streaming exports, those never keep the model in memory.
+ *
+ * The estimate is rough, based on the number of triples per file and per metadata field of the mapping
+ * and the memory use of a triple in a Jena in-memory graph.
+ * The budget is a fraction of the maximum heap, or set with the JVM option
+ * `dataverse.dcat-ap.planner.max-in-memory-bytes`.
+ */
+class ExportPlanner {
+    private static final Logger logger = Logger.getLogger(ExportPlanner.class.getCanonicalName());
+
+    // System property for the heap budget of one in-memory model
+    static final String MAX_IN_MEMORY_BYTES_PROPERTY = "dataverse.dcat-ap.planner.max-in-memory-bytes";
+    // by default one model may use 5% of the heap, there are other exports and Dataverse itself
+    static final int DEFAULT_HEAP_FRACTION = 20;
+
+    // triples of the mapping, per file (type, title, sizes, checksum, links...) and per metadata value
+    static final int TRIPLES_PER_FILE = 14;
+    static final int TRIPLES_PER_FIELD_VALUE = 2;
+    static final int TRIPLES_PER_DATASET = 20;
+    // triple, nodes and the indexes of the in-memory graph
+    static final int BYTES_PER_TRIPLE = 250;
+
+    enum Strategy {
+        IN_MEMORY, STREAMING, DISK
+    }
+
+    /** The chosen strategy, with the reason for it. */
+    static final class Plan {
+        private final Strategy strategy;
+        private final String reason;
+
+        Plan(Strategy strategy, String reason) {
+            this.strategy = strategy;
+            this.reason = reason;
+        }
+
+        Strategy getStrategy() {
+            return strategy;
+        }
+
+        String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return strategy + ": " + reason;
+        }
+    }
+
+    private final long maxInMemoryBytes;
+
+    ExportPlanner(long maxInMemoryBytes) {
+        this.maxInMemoryBytes = maxInMemoryBytes;
+    }
+
+    static ExportPlanner fromSystemProperties() {
+        return new ExportPlanner(Long.getLong(MAX_IN_MEMORY_BYTES_PROPERTY,
+                Runtime.getRuntime().maxMemory() / DEFAULT_HEAP_FRACTION));
+    }
+
+    long getMaxInMemoryBytes() {
+        return maxInMemoryBytes;
+    }
+
+    Plan plan(JsonObject datasetJson, ExportConfig config, boolean canStream) {
+        Plan plan = choose(datasetJson, config, canStream);
+        String persistentUrl = datasetJson.getString("persistentUrl", "(no persistentUrl)");
+        // only a fallback chosen from the size is worth a line in the server log,
+        // not the normal case or streaming that was asked for
+        boolean fallback = plan.getStrategy() != Strategy.IN_MEMORY && !isStreamingConfigured(config);
+        logger.log(fallback ? Level.INFO : Level.FINE,
+                "DCAT-AP export of " + persistentUrl + " planned " + plan);
+        return plan;
+    }
+
+    private static boolean isStreamingConfigured(ExportConfig config) {
+        return config.isStreaming() || config.getFormat().isAlwaysStreamed();
+    }
+
+    private Plan choose(JsonObject datasetJson, ExportConfig config, boolean canStream) {
+        if (isStreamingConfigured(config)) {
+            return new Plan(Strategy.STREAMING, "streaming is configured for " + config.getFormat());
+        }
+        JsonObject datasetVersion = datasetJson.getJsonObject("datasetVersion");
+        JsonArray files = datasetVersion.getJsonArray("files");
+        int fileCount = files == null ? 0 : files.size();
+        long fieldValues = countFieldValues(datasetVersion);
+        long estimatedBytes = estimateBytes(fileCount, fieldValues);
+        String size = fileCount + " files and " + fieldValues + " metadata values, estimated "
+                + estimatedBytes / 1024 + " KB in memory, budget " + maxInMemoryBytes / 1024 + " KB";
+        if (estimatedBytes <= maxInMemoryBytes) {
+            return new Plan(Strategy.IN_MEMORY, size);
+        }
+        if (canStream) {
+            return new Plan(Strategy.STREAMING, size);
+        }
+        return new Plan(Strategy.DISK, size + ", " + config.getFormat() + " cannot be streamed");
+    }
+
+    static long estimateBytes(long fileCount, long fieldValues) {
+        long triples = TRIPLES_PER_DATASET + fileCount * TRIPLES_PER_FILE + fieldValues * TRIPLES_PER_FIELD_VALUE;
+        return triples * BYTES_PER_TRIPLE;
+    }
+
+    /** The number of primitive values in the metadata blocks, counting every value of compound fields. */
+    static long countFieldValues(JsonObject datasetVersion) {
+        JsonObject metadataBlocks = datasetVersion.getJsonObject("metadataBlocks");
+        if (metadataBlocks == null) {
+            return 0;
+        }
+        long count = 0;
+        for (JsonValue block : metadataBlocks.values()) {
+            JsonArray fields = block.asJsonObject().getJsonArray("fields");
+            if (fields != null) {
+                for (JsonValue field : fields) {
+                    count += countValues(field.asJsonObject().get("value"));
+                }
+            }
+        }
+        return count;
+    }
+
+    private static long countValues(JsonValue value) {
+        if (value == null) {
+            return 0;
+        }
+        switch (value.getValueType()) {
+            case ARRAY:
+                long arrayCount = 0;
+                for (JsonValue element : value.asJsonArray()) {
+                    arrayCount += countValues(element);
+                }
+                return arrayCount;
+            case OBJECT:
+                // a compound value, its subfields have a value of their own
+                long objectCount = 0;
+                for (JsonValue subfield : value.asJsonObject().values()) {
+                    objectCount += subfield.getValueType() == JsonValue.ValueType.OBJECT
+                            ? countValues(subfield.asJsonObject().get("value"))
+                            : 0;
+                }
+                return objectCount;
+            default:
+                return 1;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * The mapping of the Dataverse metadata fields to DCAT-AP dataset properties, as a table.
+ *
+ * Each rule maps the values of the fields with one typeName (and typeClass) to a property of the dataset,
+ * a value mapper turns each value into a literal, an IRI or a new resource.
+ * The table is compiled once into a dispatch table by typeName, and applied in a single pass
+ * over the fields of all metadata blocks, so mapping another field is adding a rule,
+ * not another lookup of the fields.
+ *
+ * Fields that are not in the table are not mapped. The dataset level properties
+ * that do not come from the metadata blocks (identifier, version, dates, ...) are in DCATAPExporter.
+ */
+final class FieldMapping {
+    static final String PRIMITIVE = "primitive";
+    static final String COMPOUND = "compound";
+    // for the rules that take primitive and controlled vocabulary fields
+    static final String ANY_TEXT = null;
+
+    private static final RDFDatatype WKT_LITERAL = TypeMapper.getInstance().getSafeTypeByName(Vocab.WKT_LITERAL);
+    private static final Pattern YEAR = Pattern.compile("-?\\d{4}");
+    private static final Pattern YEAR_MONTH = Pattern.compile("-?\\d{4}-\\d{2}");
+    private static final Pattern DATE = Pattern.compile("-?\\d{4}-\\d{2}-\\d{2}");
+
+    /** Turns one value of a field into the object of the property, or null to skip the value. */
+    @FunctionalInterface
+    interface ValueMapper {
+        RDFNode map(Model model, JsonValue value, String lang);
+    }
+
+    /** One row of the table. */
+    static final class Rule {
+        final String typeName;
+        final String typeClass;
+        final Property property;
+        final ValueMapper mapper;
+        final boolean firstOnly;
+
+        Rule(String typeName, String typeClass, Property property, ValueMapper mapper, boolean firstOnly) {
+            this.typeName = typeName;
+            this.typeClass = typeClass;
+            this.property = property;
+            this.mapper = mapper;
+            this.firstOnly = firstOnly;
+        }
+
+        /** The same rule, but only the first value that maps to something is used. */
+        Rule first() {
+            return new Rule(typeName, typeClass, property, mapper, true);
+        }
+
+        boolean accepts(MetadataFieldIndex.Field field) {
+            if (typeClass == ANY_TEXT) {
+                return !field.isCompound();
+            }
+            return typeClass.equals(field.typeClass);
+        }
+    }
+
+    static Rule rule(String typeName, String typeClass, Property property, ValueMapper mapper) {
+        return new Rule(typeName, typeClass, property, mapper, false);
+    }
+
+    //---
+    // The table, in the order of the DCAT-AP dataset properties
+    static final List<Rule> DCAT_AP = List.of(
+            rule("title", PRIMITIVE, Vocab.DCT.title, text()),
+            rule("dsDescription", COMPOUND, Vocab.DCT.description, subField("dsDescriptionValue", text())).first(),
+            // just take the first one for now
+            rule("datasetContact", COMPOUND, Vocab.DCAT.contactPoint,
+                    (model, value, lang) -> DCATAPExporter.createContactPoint(model, value.asJsonObject(), lang))
+                    .first(),
+            // Creators are the authors from the citation fields
+            rule("author", COMPOUND, Vocab.DCT.creator,
+                    (model, value, lang) -> DCATAPExporter.createCreator(model, value.asJsonObject(), lang)),
+            // Note that it is not the same as the metadata language, which is configured
+            // the EU language IRI when the name is in the bundled table, otherwise the literal value as is
+            rule("language", ANY_TEXT, Vocab.DCT.language, concept(AuthorityTable.language(), text())),
+            // the subjects as EU data themes, subjects without a close theme are skipped
+            rule("subject", ANY_TEXT, Vocab.DCAT.theme, concept(AuthorityTable.dataTheme(), null)),
+            // Note that keywords can have URI's when a CVOC is used, but for now just use the literal value
+            rule("keyword", COMPOUND, Vocab.DCAT.keyword, subField("keywordValue", text())),
+            // other identifier
+            rule("otherId", COMPOUND, Vocab.ADMS.identifier, FieldMapping::otherIdentifier),
+            // is referenced by, only the publications with a URL
+            rule("publication", COMPOUND, Vocab.DCT.isReferencedBy, subField("publicationURL", iri())),
+            // temporal coverage
+            rule("timePeriodCovered", COMPOUND, Vocab.DCT.temporal, FieldMapping::periodOfTime),
+            // geographical coverage, from the geospatial block
+            rule("geographicCoverage", COMPOUND, Vocab.DCT.spatial, FieldMapping::namedLocation),
+            rule("geographicBoundingBox", COMPOUND, Vocab.DCT.spatial, FieldMapping::boundingBox));
+
+    private static final Map<String, Rule[]> DISPATCH = compile(DCAT_AP);
+
+    private FieldMapping() {
+    }
+
+    static Map<String, Rule[]> compile(List<Rule> rules) {
+        Map<String, List<Rule>> byTypeName = new HashMap<>();
+        for (Rule rule : rules) {
+            byTypeName.computeIfAbsent(rule.typeName, typeName -> new ArrayList<>()).add(rule);
+        }
+        Map<String, Rule[]> dispatch = new HashMap<>();
+        byTypeName.forEach((typeName, typeNameRules) -> dispatch.put(typeName, typeNameRules.toArray(new Rule[0])));
+        return dispatch;
+    }
+
+    /**
+     * Adds the properties for all mapped fields to the dataset, in one pass over the fields.
+     * Returns the properties that were added, so the caller can add defaults for the mandatory ones.
+     */
+    static Set<Property> apply(Model model, Resource dataset, MetadataFieldIndex fields, String lang) {
+        Set<Property> added = new HashSet<>();
+        for (MetadataFieldIndex.Field field : fields.fields()) {
+            Rule[] rules = DISPATCH.get(field.typeName);
+            if (rules == null) {
+                continue;
+            }
+            for (Rule rule : rules) {
+                if (rule.accepts(field) && apply(rule, model, dataset, field, lang)) {
+                    added.add(rule.property);
+                }
+            }
+        }
+        return added;
+    }
+
+    private static boolean apply(Rule rule, Model model, Resource dataset, MetadataFieldIndex.Field field,
+            String lang) {
+        boolean added = false;
+        for (JsonValue value : field.getValues()) {
+            RDFNode object = rule.mapper.map(model, value, lang);
+            if (object != null) {
+                dataset.addProperty(rule.property, object);
+                added = true;
+                if (rule.firstOnly) {
+                    break;
+                }
+            }
+        }
+        return added;
+    }
+
+    //---
+    // Value mappers
+
+    /** A literal in the metadata language, empty values are skipped. */
+    static ValueMapper text() {
+        return (model, value, lang) -> {
+            String text = string(value);
+            return text.isEmpty() ? null : model.createLiteral(text, lang);
+        };
+    }
+
+    /** An IRI, values that are not absolute IRIs are skipped. */
+    static ValueMapper iri() {
+        return (model, value, lang) -> {
+            String text = string(value);
+            try {
+                return !text.isEmpty() && new URI(text).isAbsolute() ? model.createResource(text) : null;
+            } catch (URISyntaxException e) {
+                return null;
+            }
+        };
+    }
+
+    /** The concept for the value in an EU authority table, or else the value mapped with the fallback, if any. */
+    static ValueMapper concept(AuthorityTable table, ValueMapper fallback) {
+        return (model, value, lang) -> {
+            Resource concept = table.get(string(value));
+            if (concept != null) {
+                return concept;
+            }
+            return fallback == null ? null : fallback.map(model, value, lang);
+        };
+    }
+
+    /** The value of a sub field of a compound value, mapped with the given mapper. */
+    static ValueMapper subField(String typeName, ValueMapper mapper) {
+        return (model, value, lang) -> {
+            JsonValue subFieldValue = subFieldValue(value, typeName);
+            return subFieldValue == null ? null : mapper.map(model, subFieldValue, lang);
+        };
+    }
+
+    // dct:PeriodOfTime with a start and/or an end date
+    static RDFNode periodOfTime(Model model, JsonValue value, String lang) {
+        RDFNode start = date(model, subFieldString(value, "timePeriodCoveredStart"));
+        RDFNode end = date(model, subFieldString(value, "timePeriodCoveredEnd"));
+        if (start == null && end == null) {
+            return null;
+        }
+        Resource period = model.createResource();
+        period.addProperty(Vocab.RDF.type, Vocab.DCT.PeriodOfTime);
+        if (start != null) {
+            period.addProperty(Vocab.DCAT.startDate, start);
+        }
+        if (end != null) {
+            period.addProperty(Vocab.DCAT.endDate, end);
+        }
+        return period;
+    }
+
+    // dct:Location with the place names as label, from the most specific to the country
+    static RDFNode namedLocation(Model model, JsonValue value, String lang) {
+        List<String> names = new ArrayList<>();
+        for (String typeName : new String[] {"otherGeographicCoverage", "city", "state", "country"}) {
+            String name = subFieldString(value, typeName);
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        if (names.isEmpty()) {
+            return null;
+        }
+        Resource location = model.createResource();
+        location.addProperty(Vocab.RDF.type, Vocab.DCT.Location);
+        location.addProperty(Vocab.RDFS.label, model.createLiteral(String.join(", ", names), lang));
+        return location;
+    }
+
+    // dct:Location with the bounding box as a WKT polygon, as DCAT-AP recommends
+    static RDFNode boundingBox(Model model, JsonValue value, String lang) {
+        String west = subFieldString(value, "westLongitude");
+        String east = subFieldString(value, "eastLongitude");
+        // older Dataverse versions have these as north/southLongitude
+        String north = firstNonEmpty(subFieldString(value, "northLatitude"), subFieldString(value, "northLongitude"));
+        String south = firstNonEmpty(subFieldString(value, "southLatitude"), subFieldString(value, "southLongitude"));
+        if (!isNumber(west) || !isNumber(east) || !isNumber(north) || !isNumber(south)) {
+            return null;
+        }
+        String polygon = String.format("POLYGON((%1$s %3$s, %2$s %3$s, %2$s %4$s, %1$s %4$s, %1$s %3$s))",
+                west.trim(), east.trim(), south.trim(), north.trim());
+        Resource location = model.createResource();
+        location.addProperty(Vocab.RDF.type, Vocab.DCT.Location);
+        location.addProperty(Vocab.DCAT.bbox, model.createTypedLiteral(polygon, WKT_LITERAL));
+        return location;
+    }
+
+    // adms:Identifier with the value and the agency that issued it
+    static RDFNode otherIdentifier(Model model, JsonValue value, String lang) {
+        String id = subFieldString(value, "otherIdValue");
+        if (id.isEmpty()) {
+            return null;
+        }
+        Resource identifier = model.createResource();
+        identifier.addProperty(Vocab.RDF.type, Vocab.ADMS.Identifier);
+        identifier.addProperty(Vocab.SKOS.notation, id);
+        String agency = subFieldString(value, "otherIdAgency");
+        if (!agency.isEmpty()) {
+            identifier.addProperty(Vocab.ADMS.schemaAgency, model.createLiteral(agency, lang));
+        }
+        return identifier;
+    }
+
+    //---
+    // Helpers
+
+    /** A date with the XSD type for its precision, Dataverse allows a year, a year and month, or a full date. */
+    static RDFNode date(Model model, String value) {
+        if (DATE.matcher(value).matches()) {
+            return model.createTypedLiteral(value, XSDDatatype.XSDdate);
+        } else if (YEAR_MONTH.matcher(value).matches()) {
+            return model.createTypedLiteral(value, XSDDatatype.XSDgYearMonth);
+        } else if (YEAR.matcher(value).matches()) {
+            return model.createTypedLiteral(value, XSDDatatype.XSDgYear);
+        }
+        return null;
+    }
+
+    private static String string(JsonValue value) {
+        return value instanceof JsonString ? ((JsonString) value).getString() : "";
+    }
+
+    // the value of a sub field of a compound value, sub fields are objects with the value in 'value'
+    private static JsonValue subFieldValue(JsonValue value, String typeName) {
+        if (value.getValueType() != JsonValue.ValueType.OBJECT) {
+            return null;
+        }
+        JsonObject subField = value.asJsonObject().getJsonObject(typeName);
+        return subField == null ? null : subField.get("value");
+    }
+
+    private static String subFieldString(JsonValue value, String typeName) {
+        JsonValue subFieldValue = subFieldValue(value, typeName);
+        return subFieldValue == null ? "" : string(subFieldValue).trim();
+    }
+
+    private static String firstNonEmpty(String first, String second) {
+        return first.isEmpty() ? second : first;
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
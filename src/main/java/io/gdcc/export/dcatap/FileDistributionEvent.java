@@ -0,0 +1,34 @@
+package io.gdcc.export.dcatap;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for mapping one file to a dcat:Distribution.
+ * There is one for every file, so it is disabled by default,
+ * enable it in the recording settings to find the files that are expensive to map.
+ */
+@Name("io.gdcc.export.dcatap.FileDistribution")
+@Label("DCAT-AP File Distribution")
+@Category({"Dataverse", "DCAT-AP"})
+@Description("Mapping of a file of a dataset to a DCAT-AP distribution")
+@Enabled(false)
+@StackTrace(false)
+class FileDistributionEvent extends Event {
+    @Label("Persistent URL")
+    @Description("Persistent URL of the dataset")
+    String persistentUrl;
+
+    @Label("File Id")
+    long fileId;
+
+    @Label("File Size")
+    @DataAmount
+    long fileSize;
+}
@@ -0,0 +1,96 @@
+package io.gdcc.export.dcatap;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of non-negative long values, like latencies in nanoseconds or sizes in bytes.
+ *
+ * Values below 16 have a bucket of their own, above that each power of two is split in 8 buckets,
+ * so percentiles are within 12.5% of the real value, for any value up to Long.MAX_VALUE.
+ * Recording is a few atomic increments, cheap enough to do for every export.
+ */
+class Histogram {
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = LINEAR_BUCKETS + (63 - 4) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /** The statistics, with the values divided by the scale (for instance 1e6 for nanoseconds to milliseconds). */
+    HistogramSnapshot snapshot(double scale) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        return new HistogramSnapshot(
+                count.sum(),
+                total == 0 ? 0 : sum.sum() / (double) count.sum() / scale,
+                percentile(counts, total, 0.50) / scale,
+                percentile(counts, total, 0.90) / scale,
+                percentile(counts, total, 0.99) / scale,
+                max.get() / scale);
+    }
+
+    // the upper bound of the bucket the percentile is in, but never more than the max
+    private double percentile(long[] counts, long total, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int bucket(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // at least 4
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lower + width - 1;
+    }
+}
@@ -0,0 +1,184 @@
+package io.gdcc.export.dcatap;
+
+import io.gdcc.spi.export.ExportDataProvider;
+import io.gdcc.spi.export.ExportException;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * Exports a dataset again, only mapping the files that changed since its previous export.
+ *
+ * For every file the triples of its distribution are kept, with a fingerprint of everything 
+ * they are mapped from (dataFile id, checksum, size, restricted, description, content type, filename and license).
+ * On the next export of the same dataset, files with the same fingerprint get their kept triples, 
+ * only new and changed files are mapped, and removed files are dropped.
+ * The dataset level properties are always mapped again, there are only a few of them.
+ *
+ * The triples are kept instead of serialized text, so they can be spliced into any output format,
+ * RDF/XML and JSON-LD documents cannot simply be concatenated.
+ * The state of a limited number of datasets is kept, the least recently exported one is dropped first.
+ * A page of the distributions cannot be exported incrementally, use DCATAPExporter for that.
+ */
+public class IncrementalExporter {
+    private static final Logger logger = Logger.getLogger(IncrementalExporter.class.getCanonicalName());
+
+    private final DCATAPExporter exporter;
+    private final Map<String, Map<Integer, FileFragment>> datasets;
+
+    private final AtomicLong reusedFiles = new AtomicLong();
+    private final AtomicLong mappedFiles = new AtomicLong();
+    private final AtomicLong removedFiles = new AtomicLong();
+
+    /**
+     * @param exporter does the mapping and writing
+     * @param maxDatasets maximum number of datasets to keep the file fragments for
+     */
+    public IncrementalExporter(DCATAPExporter exporter, int maxDatasets) {
+        this.exporter = exporter;
+        this.datasets = Collections.synchronizedMap(
+                new LinkedHashMap<String, Map<Integer, FileFragment>>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Map<Integer, FileFragment>> eldest) {
+                        return size() > maxDatasets;
+                    }
+                });
+    }
+
+    public void exportDataset(ExportDataProvider dataProvider, OutputStream outputStream, ExportConfig config)
+            throws ExportException {
+        if (config.isPaged()) {
+            throw new ExportException("An incremental export has all distributions, it cannot be paged");
+        }
+        ExportMetrics.Recording recording = ExportMetrics.get().start(config);
+        try {
+            recording.begin(ExportMetrics.Phase.FETCH);
+            JsonObject datasetJson = dataProvider.getDatasetJson();
+            recording.end(ExportMetrics.Phase.FETCH);
+            String persistentURL = datasetJson.getString("persistentUrl", "");
+            recording.setDataset(persistentURL);
+            Map<Integer, FileFragment> previous = datasets.getOrDefault(persistentURL, Collections.emptyMap());
+            Map<Integer, FileFragment> current = new HashMap<>();
+
+            CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+            OutputStream encodedStream = DCATAPExporter.encode(countingStream, config);
+            exporter.write(model -> map(model, datasetJson, previous, current, config), encodedStream, config);
+            recording.begin(ExportMetrics.Phase.FLUSH);
+            DCATAPExporter.finishEncoding(encodedStream);
+            outputStream.flush();
+            recording.end(ExportMetrics.Phase.FLUSH);
+            recording.setBytes(countingStream.getCount());
+
+            long removed = previous.keySet().stream().filter(id -> !current.containsKey(id)).count();
+            removedFiles.addAndGet(removed);
+            datasets.put(persistentURL, current);
+        } catch (Exception ex) {
+            recording.fail(ex);
+            logger.log(Level.SEVERE, "DCAT-AP incremental export failed", ex);
+            throw new ExportException("Unknown exception caught during export: " + ex, ex);
+        } finally {
+            recording.finish();
+        }
+    }
+
+    private void map(Model model, JsonObject datasetJson, 
+            Map<Integer, FileFragment> previous, Map<Integer, FileFragment> current, ExportConfig config) {
+        exporter.setNsPrefixes(model);
+        Resource datasetModel = exporter.mapDatasetProperties(model, datasetJson, config);
+        JsonObject datasetVersion = datasetJson.getJsonObject("datasetVersion");
+        JsonObject licenseObj = datasetVersion.getJsonObject("license");
+        Graph graph = model.getGraph();
+
+        JsonArray files = datasetVersion.getJsonArray("files");
+        for (int i = 0; i < files.size(); i++) {
+            JsonObject fileObj = files.getJsonObject(i);
+            int id = fileObj.getJsonObject("dataFile").getInt("id", 0);
+            String fingerprint = fingerprint(fileObj, licenseObj, datasetModel.getURI(), config);
+
+            FileFragment fragment = previous.get(id);
+            if (fragment != null && fragment.fingerprint.equals(fingerprint)) {
+                reusedFiles.incrementAndGet();
+            } else {
+                fragment = new FileFragment(fingerprint, mapFile(datasetModel.getURI(), fileObj, licenseObj, config));
+                mappedFiles.incrementAndGet();
+            }
+            for (Triple triple : fragment.triples) {
+                graph.add(triple);
+            }
+            current.put(id, fragment);
+        }
+    }
+
+    // map the file on its own, so we get only its triples
+    private Triple[] mapFile(String persistentURL, JsonObject fileObj, JsonObject licenseObj, ExportConfig config) {
+        Model fileModel = ModelFactory.createDefaultModel();
+        exporter.addFileDistribution(fileModel, fileModel.createResource(persistentURL), fileObj, licenseObj, config);
+        List<Triple> triples = fileModel.getGraph().find().toList();
+        return triples.toArray(new Triple[0]);
+    }
+
+    /** Everything that the distribution of a file is mapped from. */
+    static String fingerprint(JsonObject fileObj, JsonObject licenseObj, String persistentURL, ExportConfig config) {
+        JsonObject dataFile = fileObj.getJsonObject("dataFile");
+        JsonObject checksum = dataFile.getJsonObject("checksum");
+        StringBuilder sb = new StringBuilder(128);
+        sb.append(dataFile.getInt("id", 0)).append('\u0000');
+        if (checksum != null) {
+            sb.append(checksum.getString("type", "")).append(':').append(checksum.getString("value", ""));
+        }
+        sb.append('\u0000').append(dataFile.getInt("filesize", 0));
+        sb.append('\u0000').append(fileObj.getBoolean("restricted", false));
+        sb.append('\u0000').append(dataFile.getString("description", "\u0001")); // missing is not the same as empty
+        sb.append('\u0000').append(dataFile.getString("contentType", ""));
+        sb.append('\u0000').append(dataFile.getString("filename", ""));
+        if (licenseObj != null) {
+            sb.append('\u0000').append(licenseObj.getString("uri", "")).append(licenseObj.getString("name", ""));
+        }
+        sb.append('\u0000').append(persistentURL);
+        sb.append('\u0000').append(config.getFileAccessBaseUrl()).append('\u0000').append(config.getMetadataLanguage());
+        return sb.toString();
+    }
+
+    /** Number of files whose triples were reused from the previous export. */
+    public long getReusedFiles() {
+        return reusedFiles.get();
+    }
+
+    /** Number of new or changed files that were mapped. */
+    public long getMappedFiles() {
+        return mappedFiles.get();
+    }
+
+    /** Number of files that were in the previous export, but not anymore. */
+    public long getRemovedFiles() {
+        return removedFiles.get();
+    }
+
+    /** Forget the previous export of the dataset, the next export will map all files. */
+    public void forget(String persistentURL) {
+        datasets.remove(persistentURL);
+    }
+
+    private static final class FileFragment {
+        final String fingerprint;
+        final Triple[] triples;
+
+        FileFragment(String fingerprint, Triple[] triples) {
+            this.fingerprint = fingerprint;
+            this.triples = triples;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.gdcc.export.dcatap;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A bounded, thread safe cache for values that are created over and over again
+ * from the same keys, like license URIs and media types.
+ * Keys must be immutable.
+ *
+ * Once the cache is full new values are still created, but not stored anymore.
+ * The values that repeat a lot are normally seen early, so this keeps the common ones
+ * without having to do any bookkeeping for eviction.
+ */
+class InternCache<K, V> {
+    private final ConcurrentHashMap<K, V> cache = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final Function<K, V> factory;
+
+    InternCache(int maxSize, Function<K, V> factory) {
+        this.maxSize = maxSize;
+        this.factory = factory;
+    }
+
+    V get(K key) {
+        V value = cache.get(key);
+        if (value != null) {
+            return value;
+        }
+        if (cache.size() >= maxSize) {
+            return factory.apply(key);
+        }
+        return cache.computeIfAbsent(key, factory);
+    }
+
+    int size() {
+        return cache.size();
+    }
+}
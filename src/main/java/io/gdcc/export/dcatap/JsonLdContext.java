@@ -0,0 +1,156 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The JSON-LD context bundled with the exporter, parsed once,
+ * with the lookups needed to compact the triples while writing them.
+ *
+ * Only the simple parts of JSON-LD contexts are supported: prefixes,
+ * and terms with an @id, an optional @type (a datatype or @id) and an optional @set container.
+ * The order of the terms in the context is also the order of the properties in the output.
+ */
+final class JsonLdContext {
+    static final String DCAT_AP_CONTEXT = "dcat-ap-context.jsonld";
+
+    private static final JsonLdContext DCAT_AP = read(DCAT_AP_CONTEXT);
+
+    /** The definition of a term for a property. */
+    static final class Term {
+        final String name;
+        final String iri;
+        // expanded datatype IRI, "@id", or null
+        final String type;
+        final boolean set;
+        final int order;
+
+        Term(String name, String iri, String type, boolean set, int order) {
+            this.name = name;
+            this.iri = iri;
+            this.type = type;
+            this.set = set;
+            this.order = order;
+        }
+    }
+
+    private final JsonObject document;
+    // namespace to prefix, longest namespace first
+    private final Map<String, String> prefixes = new LinkedHashMap<>();
+    private final Map<String, Term> properties = new HashMap<>();
+    private final Map<String, String> classes = new HashMap<>();
+
+    JsonLdContext(JsonObject document) {
+        this.document = document;
+        JsonObject context = document.getJsonObject("@context");
+        List<Map.Entry<String, String>> namespaces = new ArrayList<>();
+        for (Map.Entry<String, JsonValue> entry : context.entrySet()) {
+            if (entry.getValue() instanceof JsonString) {
+                String iri = ((JsonString) entry.getValue()).getString();
+                if (iri.endsWith("/") || iri.endsWith("#")) {
+                    namespaces.add(Map.entry(entry.getKey(), iri));
+                }
+            }
+        }
+        namespaces.sort((a, b) -> b.getValue().length() - a.getValue().length());
+        namespaces.forEach(namespace -> prefixes.put(namespace.getValue(), namespace.getKey()));
+
+        int order = 0;
+        for (Map.Entry<String, JsonValue> entry : context.entrySet()) {
+            String name = entry.getKey();
+            JsonValue value = entry.getValue();
+            if (value instanceof JsonString) {
+                String iri = expand(((JsonString) value).getString());
+                if (!prefixes.containsKey(iri)) {
+                    // a simple term, used for classes and for properties without coercion
+                    classes.putIfAbsent(iri, name);
+                    properties.putIfAbsent(iri, new Term(name, iri, null, false, order++));
+                }
+            } else if (value instanceof JsonObject) {
+                JsonObject definition = (JsonObject) value;
+                String iri = expand(definition.getString("@id"));
+                String type = definition.containsKey("@type") ? expand(definition.getString("@type")) : null;
+                boolean set = "@set".equals(definition.getString("@container", null));
+                properties.putIfAbsent(iri, new Term(name, iri, type, set, order++));
+            }
+        }
+    }
+
+    /** The DCAT-AP context, from the resource bundled with the exporter. */
+    static JsonLdContext dcatAp() {
+        return DCAT_AP;
+    }
+
+    static JsonLdContext read(String resource) {
+        try (InputStream in = JsonLdContext.class.getResourceAsStream(resource);
+                JsonReader reader = Json.createReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return new JsonLdContext(reader.readObject());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** The @context member, to put in the output as is. */
+    JsonValue getContext() {
+        return document.get("@context");
+    }
+
+    Map<String, String> getPrefixes() {
+        return Collections.unmodifiableMap(prefixes);
+    }
+
+    /** The term for the property, or null if there is none. */
+    Term getProperty(String iri) {
+        return properties.get(iri);
+    }
+
+    /** The term for the class, or null if there is none. */
+    String getClassTerm(String iri) {
+        return classes.get(iri);
+    }
+
+    /** The prefixed name of the IRI, or the IRI itself when no prefix matches. */
+    String compact(String iri) {
+        for (Map.Entry<String, String> prefix : prefixes.entrySet()) {
+            String namespace = prefix.getKey();
+            if (iri.startsWith(namespace) && iri.length() > namespace.length()) {
+                String localName = iri.substring(namespace.length());
+                // would be read as an absolute IRI, or a prefix of its own
+                if (!localName.startsWith("//") && localName.indexOf(':') < 0) {
+                    return prefix.getValue() + ":" + localName;
+                }
+            }
+        }
+        return iri;
+    }
+
+    private String expand(String value) {
+        if (value.startsWith("@")) {
+            return value;
+        }
+        int colon = value.indexOf(':');
+        if (colon > 0) {
+            String prefix = value.substring(0, colon);
+            for (Map.Entry<String, String> entry : prefixes.entrySet()) {
+                if (entry.getValue().equals(prefix)) {
+                    return entry.getKey() + value.substring(colon + 1);
+                }
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,414 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+/**
+ * Writes a graph as compacted and framed JSON-LD, with the bundled DCAT-AP context.
+ *
+ * This replaces the generic JSON-LD writer of Jena, which processes the context for every document
+ * and leaves the output flat. Here the context is parsed once (see JsonLdContext),
+ * and the frame is fixed: catalogs and datasets are at the top,
+ * every node that is referenced only once (distributions, creators, contact points, checksums)
+ * is nested in the node that refers to it. Other nodes are written at the top as well.
+ * The document is written with a JSON generator while walking the graph, no JSON tree is built.
+ *
+ * A graph in memory is first grouped by subject, to count the references and find the nodes to nest.
+ * A graph in an indexed store (the TDB2 store of a DiskExport) is written without that copy, see writeIndexed:
+ * the triples of each node and the references to it are looked up in the store when they are needed.
+ *
+ * Values are written the way a JSON-LD processor would compact them with the context:
+ * plain strings and IRIs where the term has a matching @type, value objects otherwise.
+ */
+class JsonLdWriter {
+    private static final JsonGeneratorFactory GENERATORS =
+            Json.createGeneratorFactory(Map.of(JsonGenerator.PRETTY_PRINTING, true));
+
+    private static final Node RDF_TYPE = Vocab.RDF.type.asNode();
+    // the nodes of these types are the roots of the frame, in this order
+    private static final List<String> FRAME_ROOTS = List.of(
+            DCATAPExporter.DCAT + "Catalog", DCATAPExporter.DCAT + "Dataset");
+    private static final List<Node> FRAME_ROOT_NODES = List.of(
+            Vocab.DCAT.Catalog.asNode(), Vocab.DCAT.Dataset.asNode());
+
+    private final JsonLdContext context;
+    private final JsonGenerator generator;
+    // the store to look up the triples in, null when they are grouped in memory
+    private final Graph store;
+    // the triples of each subject, in the order of the graph
+    private final Map<Node, List<Triple>> subjects = new LinkedHashMap<>();
+    private final Map<Node, Integer> references = new HashMap<>();
+    private final Set<Node> written = new HashSet<>();
+    private final Map<Node, String> blankNodeLabels = new HashMap<>();
+
+    private JsonLdWriter(JsonLdContext context, OutputStream out) {
+        this(context, out, null);
+    }
+
+    JsonLdWriter(JsonLdContext context, OutputStream out, Graph store) {
+        this.context = context;
+        this.generator = GENERATORS.createGenerator(out);
+        this.store = store;
+    }
+
+    static void write(Graph graph, OutputStream out) {
+        write(graph, out, JsonLdContext.dcatAp());
+    }
+
+    static void write(Graph graph, OutputStream out, JsonLdContext context) {
+        ExtendedIterator<Triple> triples = graph.find();
+        try {
+            new JsonLdWriter(context, out).write(triples);
+        } finally {
+            triples.close();
+        }
+    }
+
+    /**
+     * Write a graph of a store with indexes on subject and object, like TDB2, without copying it to memory.
+     * The triples of each node are found when the node is written, and a node is nested
+     * when it has a single reference that leads up to a frame root; only the triples of the nodes
+     * that are being written (a dataset, one distribution, its checksum) are in memory at the same time.
+     * The subjects are found by scanning the graph, which must give the triples of a subject together,
+     * as the subject first index of a store does.
+     */
+    static void writeIndexed(Graph store, OutputStream out) {
+        new JsonLdWriter(JsonLdContext.dcatAp(), out, store).writeIndexed();
+    }
+
+    /** Write the triples in the order of the list, for canonical output. */
+    static void write(List<Triple> triples, OutputStream out) {
+        new JsonLdWriter(JsonLdContext.dcatAp(), out).write(triples.iterator());
+    }
+
+    private void write(Iterator<Triple> triples) {
+        while (triples.hasNext()) {
+            Triple triple = triples.next();
+            subjects.computeIfAbsent(triple.getSubject(), subject -> new ArrayList<>()).add(triple);
+            if (!triple.getObject().isLiteral()) {
+                references.merge(triple.getObject(), 1, Integer::sum);
+            }
+        }
+
+        Set<Node> top = new LinkedHashSet<>();
+        for (String rootType : FRAME_ROOTS) {
+            subjects.forEach((subject, properties) -> {
+                if (hasType(properties, rootType)) {
+                    top.add(subject);
+                }
+            });
+        }
+        // whatever cannot be nested in the roots, also the nodes of a cycle
+        Set<Node> reached = new HashSet<>();
+        top.forEach(root -> reach(root, reached));
+        for (Node subject : subjects.keySet()) {
+            if (!reached.contains(subject)) {
+                top.add(subject);
+                reach(subject, reached);
+            }
+        }
+        written.addAll(top);
+
+        generator.writeStartObject();
+        generator.write("@context", context.getContext());
+        if (top.size() == 1) {
+            writeProperties(top.iterator().next(), false);
+        } else {
+            generator.writeStartArray("@graph");
+            for (Node node : top) {
+                generator.writeStartObject();
+                writeProperties(node, false);
+                generator.writeEnd();
+            }
+            generator.writeEnd();
+        }
+        generator.writeEnd();
+        generator.flush();
+    }
+
+    void writeIndexed() {
+        // a single top node is the document itself, otherwise they are in @graph
+        int[] tops = {0};
+        forEachTop(top -> ++tops[0] < 2);
+
+        generator.writeStartObject();
+        generator.write("@context", context.getContext());
+        if (tops[0] == 1) {
+            forEachTop(top -> {
+                writeProperties(top, false);
+                return false;
+            });
+        } else {
+            generator.writeStartArray("@graph");
+            forEachTop(top -> {
+                generator.writeStartObject();
+                writeProperties(top, false);
+                generator.writeEnd();
+                return true;
+            });
+            generator.writeEnd();
+        }
+        generator.writeEnd();
+        generator.flush();
+    }
+
+    /** The number of subjects grouped in memory, none when writing from a store. */
+    int groupedSubjects() {
+        return subjects.size();
+    }
+
+    // Give the top nodes of the store to the action, the frame roots first, until it returns false
+    private void forEachTop(Predicate<Node> action) {
+        for (int i = 0; i < FRAME_ROOT_NODES.size(); i++) {
+            ExtendedIterator<Triple> typed = store.find(Node.ANY, RDF_TYPE, FRAME_ROOT_NODES.get(i));
+            try {
+                while (typed.hasNext()) {
+                    Node subject = typed.next().getSubject();
+                    // a node with two root types only once
+                    if (rootIndex(subject) == i && !action.test(subject)) {
+                        return;
+                    }
+                }
+            } finally {
+                typed.close();
+            }
+        }
+        ExtendedIterator<Triple> all = store.find();
+        try {
+            Node previous = null;
+            while (all.hasNext()) {
+                Node subject = all.next().getSubject();
+                if (subject.equals(previous)) {
+                    continue;
+                }
+                previous = subject;
+                if (rootIndex(subject) < 0 && isTop(subject) && !action.test(subject)) {
+                    return;
+                }
+            }
+        } finally {
+            all.close();
+        }
+    }
+
+    // The first frame root type of the node in the store, -1 if it is not a root
+    private int rootIndex(Node node) {
+        for (int i = 0; i < FRAME_ROOT_NODES.size(); i++) {
+            if (store.contains(node, RDF_TYPE, FRAME_ROOT_NODES.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // The only node that refers to the node in the store, null when it has no properties or not one reference
+    private Node parent(Node node) {
+        if (node.isLiteral() || !store.contains(node, Node.ANY, Node.ANY)) {
+            return null;
+        }
+        ExtendedIterator<Triple> references = store.find(Node.ANY, Node.ANY, node);
+        try {
+            if (!references.hasNext()) {
+                return null;
+            }
+            Node parent = references.next().getSubject();
+            return references.hasNext() ? null : parent;
+        } finally {
+            references.close();
+        }
+    }
+
+    /**
+     * Whether the node of the store is written at the top: a frame root, or a node that is not nested.
+     * Otherwise it is nested under the node at the top of its chain of single references;
+     * in a cycle of single references, the least node of the cycle is at the top.
+     */
+    private boolean isTop(Node node) {
+        if (rootIndex(node) >= 0) {
+            return true;
+        }
+        Node current = parent(node);
+        if (current == null) {
+            return true;
+        }
+        Set<Node> chain = new HashSet<>();
+        chain.add(node);
+        Node least = node;
+        while (current != null && rootIndex(current) < 0) {
+            if (current.equals(node)) {
+                return least.equals(node);
+            }
+            if (!chain.add(current)) {
+                // a cycle above the node, it is nested under that
+                return false;
+            }
+            if (current.toString().compareTo(least.toString()) < 0) {
+                least = current;
+            }
+            current = parent(current);
+        }
+        return false;
+    }
+
+    // Mark the node and all nodes that will be nested in it
+    private void reach(Node node, Set<Node> reached) {
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(node);
+        reached.add(node);
+        while (!pending.isEmpty()) {
+            for (Triple triple : subjects.getOrDefault(pending.pop(), List.of())) {
+                Node object = triple.getObject();
+                if (isNested(object) && reached.add(object)) {
+                    pending.push(object);
+                }
+            }
+        }
+    }
+
+    private boolean isNested(Node node) {
+        return subjects.containsKey(node) && references.getOrDefault(node, 0) == 1;
+    }
+
+    // Whether to write the node nested here: it is referenced only here, and not written at the top
+    private boolean nest(Node node) {
+        if (store != null) {
+            return parent(node) != null && !isTop(node);
+        }
+        return isNested(node) && written.add(node);
+    }
+
+    private List<Triple> triplesOf(Node subject) {
+        if (store != null) {
+            List<Triple> triples = store.find(subject, Node.ANY, Node.ANY).toList();
+            return triples.isEmpty() ? null : triples;
+        }
+        return subjects.get(subject);
+    }
+
+    private static boolean hasType(List<Triple> properties, String type) {
+        for (Triple triple : properties) {
+            if (triple.getPredicate().equals(RDF_TYPE)
+                    && triple.getObject().isURI() && triple.getObject().getURI().equals(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The members of the node object, the caller writes the braces. */
+    private void writeProperties(Node subject, boolean nested) {
+        if (!nested || subject.isURI()) {
+            generator.write("@id", id(subject));
+        }
+        List<Triple> triples = triplesOf(subject);
+        if (triples == null) {
+            return;
+        }
+        // group the values by predicate, in the order of the terms of the context
+        Map<Node, List<Node>> values = new LinkedHashMap<>();
+        for (Triple triple : triples) {
+            values.computeIfAbsent(triple.getPredicate(), predicate -> new ArrayList<>()).add(triple.getObject());
+        }
+        List<Node> types = values.remove(RDF_TYPE);
+        if (types != null) {
+            if (types.size() == 1) {
+                generator.write("@type", type(types.get(0)));
+            } else {
+                generator.writeStartArray("@type");
+                types.forEach(type -> generator.write(type(type)));
+                generator.writeEnd();
+            }
+        }
+        List<Node> predicates = new ArrayList<>(values.keySet());
+        predicates.sort((a, b) -> Integer.compare(order(a), order(b)));
+        for (Node predicate : predicates) {
+            JsonLdContext.Term term = context.getProperty(predicate.getURI());
+            List<Node> objects = values.get(predicate);
+            String key = term != null ? term.name : context.compact(predicate.getURI());
+            if (objects.size() == 1 && (term == null || !term.set)) {
+                generator.writeKey(key);
+                writeValue(objects.get(0), term);
+            } else {
+                generator.writeStartArray(key);
+                for (Node object : objects) {
+                    writeValue(object, term);
+                }
+                generator.writeEnd();
+            }
+        }
+    }
+
+    private int order(Node predicate) {
+        JsonLdContext.Term term = context.getProperty(predicate.getURI());
+        return term != null ? term.order : Integer.MAX_VALUE;
+    }
+
+    private void writeValue(Node object, JsonLdContext.Term term) {
+        String type = term != null ? term.type : null;
+        if (object.isLiteral()) {
+            String lang = object.getLiteralLanguage();
+            String datatype = object.getLiteralDatatypeURI();
+            if (!lang.isEmpty()) {
+                generator.writeStartObject();
+                generator.write("@value", object.getLiteralLexicalForm());
+                generator.write("@language", lang);
+                generator.writeEnd();
+            } else if (type == null && XSDDatatype.XSDstring.getURI().equals(datatype)
+                    || datatype.equals(type)) {
+                generator.write(object.getLiteralLexicalForm());
+            } else {
+                generator.writeStartObject();
+                generator.write("@value", object.getLiteralLexicalForm());
+                if (!XSDDatatype.XSDstring.getURI().equals(datatype)) {
+                    generator.write("@type", context.compact(datatype));
+                }
+                generator.writeEnd();
+            }
+        } else if (nest(object)) {
+            // the frame: nest the node that is referenced only here
+            generator.writeStartObject();
+            writeProperties(object, true);
+            generator.writeEnd();
+        } else if ("@id".equals(type)) {
+            generator.write(id(object));
+        } else {
+            generator.writeStartObject();
+            generator.write("@id", id(object));
+            generator.writeEnd();
+        }
+    }
+
+    private String id(Node node) {
+        if (node.isBlank()) {
+            return blankNodeLabels.computeIfAbsent(node, blank -> "_:b" + blankNodeLabels.size());
+        }
+        return context.compact(node.getURI());
+    }
+
+    private String type(Node type) {
+        if (type.isURI()) {
+            String term = context.getClassTerm(type.getURI());
+            return term != null ? term : context.compact(type.getURI());
+        }
+        return id(type);
+    }
+}
@@ -0,0 +1,129 @@
+package io.gdcc.export.dcatap;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.apache.jena.rdf.model.Model;
+
+/**
+ * Short-lived store of mapped dataset graphs, keyed by the dataset version fingerprint.
+ *
+ * Dataverse exports a dataset version in all formats right after publishing, 
+ * each format by its own exporter. With this store the dataset JSON is mapped only once in such a burst, 
+ * the exporters for the other formats serialize the same graph.
+ * When several exports of the same version run at the same time, only one of them does the mapping, 
+ * the others wait for it.
+ *
+ * Graphs are only kept for a short time (they are mapped again when needed), 
+ * there is a maximum number of them and large graphs are not kept at all.
+ * The graphs are shared, so they must only be read!
+ */
+class MappedGraphCache {
+    // System properties to configure the store in Dataverse
+    static final String TTL_SECONDS_PROPERTY = "dataverse.dcat-ap.graph-cache.ttl-seconds";
+    static final String MAX_ENTRIES_PROPERTY = "dataverse.dcat-ap.graph-cache.max-entries";
+    static final long DEFAULT_TTL_SECONDS = 60;
+    static final int DEFAULT_MAX_ENTRIES = 16;
+    // larger graphs are mapped for every format, keeping them would take too much of the heap
+    static final long MAX_TRIPLES = 200_000;
+
+    private static MappedGraphCache shared = null;
+    private static boolean sharedCreated = false;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    MappedGraphCache(long ttlSeconds, int maxEntries) {
+        this(ttlSeconds, maxEntries, System::nanoTime);
+    }
+
+    MappedGraphCache(long ttlSeconds, int maxEntries, LongSupplier clock) {
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /** The store from the system properties, shared by all exporters, or null if the time to live is 0. */
+    static synchronized MappedGraphCache shared() {
+        if (!sharedCreated) {
+            long ttlSeconds = Long.getLong(TTL_SECONDS_PROPERTY, DEFAULT_TTL_SECONDS);
+            shared = ttlSeconds <= 0 ? null 
+                    : new MappedGraphCache(ttlSeconds, Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES));
+            sharedCreated = true;
+        }
+        return shared;
+    }
+
+    /** The mapped graph of the dataset version, the mapper is only called if it is not there. */
+    Model get(String key, Supplier<Model> mapper) {
+        long now = clock.getAsLong();
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isExpired(now)) {
+            return entry.join();
+        }
+        removeExpired(now);
+        if (entries.size() >= maxEntries) {
+            return mapper.get();
+        }
+        Entry created = new Entry(now + ttlNanos);
+        entry = entries.merge(key, created, (old, replacement) -> old.isExpired(now) ? replacement : old);
+        if (entry != created) {
+            return entry.join();
+        }
+        try {
+            Model model = mapper.get();
+            if (model.size() > MAX_TRIPLES) {
+                entries.remove(key, created);
+            }
+            created.future.complete(model);
+            return model;
+        } catch (RuntimeException | Error e) {
+            // the ones waiting get the same exception, the next export tries again
+            entries.remove(key, created);
+            created.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void removeExpired(long now) {
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+            if (it.next().isExpired(now)) {
+                it.remove();
+            }
+        }
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Model> future = new CompletableFuture<>();
+        final long expiresAt;
+
+        Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+
+        Model join() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of all metadata fields of a dataset version, by typeName.
+ *
+ * The fields of every metadata block under 'metadataBlocks' are read once,
+ * after that any field can be looked up in constant time,
+ * instead of scanning the fields array for each field we want to map.
+ * Note that in Dataverse the typeNames are unique over all metadata blocks.
+ */
+class MetadataFieldIndex {
+    private static final JsonArray EMPTY_ARRAY = Json.createArrayBuilder().build();
+
+    private final Map<String, Field> fieldsByTypeName;
+
+    private MetadataFieldIndex(Map<String, Field> fieldsByTypeName) {
+        this.fieldsByTypeName = fieldsByTypeName;
+    }
+
+    /** Build the index from the datasetVersion object of the dataset JSON. */
+    static MetadataFieldIndex of(JsonObject datasetVersion) {
+        JsonObject metadataBlocks = datasetVersion.getJsonObject("metadataBlocks");
+        if (metadataBlocks == null) {
+            return new MetadataFieldIndex(Collections.emptyMap());
+        }
+        Map<String, Field> index = new LinkedHashMap<>();
+        for (String blockName : metadataBlocks.keySet()) {
+            JsonArray fields = metadataBlocks.getJsonObject(blockName).getJsonArray("fields");
+            if (fields == null) {
+                continue;
+            }
+            for (int i = 0; i < fields.size(); i++) {
+                Field field = new Field(blockName, fields.getJsonObject(i));
+                // first one wins, just like the old linear scan did
+                index.putIfAbsent(field.typeName, field);
+            }
+        }
+        return new MetadataFieldIndex(index);
+    }
+
+    /** The field with the given typeName, or null if the dataset does not have it. */
+    Field get(String typeName) {
+        return fieldsByTypeName.get(typeName);
+    }
+
+    /** All fields, in the order of the metadata blocks. */
+    Collection<Field> fields() {
+        return Collections.unmodifiableCollection(fieldsByTypeName.values());
+    }
+
+    int size() {
+        return fieldsByTypeName.size();
+    }
+
+    /** The value of a single valued primitive field. */
+    String getPrimitiveValue(String typeName, String defaultValue) {
+        Field field = get(typeName);
+        if (field != null && field.isPrimitive() && !field.multiple) {
+            return field.getString(defaultValue);
+        }
+        return defaultValue;
+    }
+
+    /** The values of a primitive field, a single valued field gives a list with one value. */
+    List<String> getPrimitiveValues(String typeName) {
+        Field field = get(typeName);
+        if (field != null && field.isPrimitive()) {
+            return field.getStrings();
+        }
+        return Collections.emptyList();
+    }
+
+    /** The values of a multiple field, any typeClass except compound. */
+    List<String> getMultipleValues(String typeName) {
+        Field field = get(typeName);
+        if (field != null && field.multiple && !field.isCompound()) {
+            return field.getStrings();
+        }
+        return Collections.emptyList();
+    }
+
+    /** The values of a compound field, each value is an object with the sub fields by typeName. */
+    JsonArray getCompoundValues(String typeName) {
+        Field field = get(typeName);
+        if (field != null && field.isCompound()) {
+            return field.getCompoundValues();
+        }
+        return EMPTY_ARRAY;
+    }
+
+    /** Typed view on one field of a metadata block. */
+    static final class Field {
+        final String blockName;
+        final String typeName;
+        final String typeClass;
+        final boolean multiple;
+        final JsonValue value;
+
+        Field(String blockName, JsonObject field) {
+            this(blockName,
+                    field.getString("typeName"),
+                    field.getString("typeClass", "primitive"),
+                    field.getBoolean("multiple", false),
+                    field.get("value"));
+        }
+
+        Field(String blockName, String typeName, String typeClass, boolean multiple, JsonValue value) {
+            this.blockName = blockName;
+            this.typeName = typeName;
+            this.typeClass = typeClass;
+            this.multiple = multiple;
+            this.value = value == null ? JsonValue.NULL : value;
+        }
+
+        boolean isPrimitive() {
+            return "primitive".equals(typeClass);
+        }
+
+        boolean isControlledVocabulary() {
+            return "controlledVocabulary".equals(typeClass);
+        }
+
+        boolean isCompound() {
+            return "compound".equals(typeClass);
+        }
+
+        /** The value of a single valued field. */
+        String getString(String defaultValue) {
+            if (value.getValueType() == JsonValue.ValueType.STRING) {
+                return ((JsonString) value).getString();
+            }
+            return defaultValue;
+        }
+
+        /** The values of a primitive or controlled vocabulary field. */
+        List<String> getStrings() {
+            if (!multiple) {
+                return Collections.singletonList(getString(""));
+            }
+            if (value.getValueType() != JsonValue.ValueType.ARRAY) {
+                return Collections.emptyList();
+            }
+            JsonArray valuesArray = value.asJsonArray();
+            List<String> valuesList = new ArrayList<>(valuesArray.size());
+            for (int j = 0; j < valuesArray.size(); j++) {
+                valuesList.add(valuesArray.getString(j, ""));
+            }
+            return valuesList;
+        }
+
+        /**
+         * All values of the field, whatever its typeClass: the objects of a compound field,
+         * the strings of the others. A single valued field gives a list with one value.
+         */
+        List<JsonValue> getValues() {
+            if (isCompound()) {
+                return getCompoundValues();
+            }
+            switch (value.getValueType()) {
+                case ARRAY:
+                    return value.asJsonArray();
+                case STRING:
+                    return Collections.singletonList(value);
+                default:
+                    return Collections.emptyList();
+            }
+        }
+
+        /** The values of a compound field, a single valued compound gives an array with one object. */
+        JsonArray getCompoundValues() {
+            switch (value.getValueType()) {
+                case ARRAY:
+                    return value.asJsonArray();
+                case OBJECT:
+                    return Json.createArrayBuilder().add(value).build();
+                default:
+                    return EMPTY_ARRAY;
+            }
+        }
+    }
+}
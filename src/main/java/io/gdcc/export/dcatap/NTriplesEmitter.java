@@ -0,0 +1,138 @@
+package io.gdcc.export.dcatap;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * Streaming N-Triples (and N-Quads) writer with the vocabulary precompiled.
+ *
+ * The predicates and constant values of the mapping are copied from byte fragments
+ * that are encoded once for all exports, only the other IRIs and literals are escaped.
+ * Blank nodes get a label encoded from their internal label, like the Jena writer does,
+ * so the output of several writers can be concatenated.
+ */
+class NTriplesEmitter extends ByteEmitter {
+    // the values, and the predicates with the space after them
+    private static final Map<Node, byte[]> VALUES = compile(Vocab.constants(), NodeFmtLib::strNT);
+    private static final Map<Node, byte[]> PREDICATES = compile(Vocab.constants(),
+            node -> node.isURI() ? NodeFmtLib.strNT(node) + " " : null);
+    private static final byte[] END_OF_STATEMENT = " .\n".getBytes(StandardCharsets.UTF_8);
+
+    // literal escapes, the same for N-Triples and Turtle
+    static final Escaper STRING = c -> {
+        switch (c) {
+            case '"':
+                return "\\\"";
+            case '\\':
+                return "\\\\";
+            case '\n':
+                return "\\n";
+            case '\r':
+                return "\\r";
+            case '\t':
+                return "\\t";
+            default:
+                return null;
+        }
+    };
+
+    // characters that are not allowed in an IRI reference, written as a unicode escape
+    static final Escaper IRI = c -> {
+        if (c <= 0x20 || c == '<' || c == '>' || c == '"' || c == '{' || c == '}'
+                || c == '|' || c == '^' || c == '`' || c == '\\') {
+            return String.format("\\u%04X", (int) c);
+        }
+        return null;
+    };
+
+    private final Map<String, byte[]> datatypes = new HashMap<>();
+
+    NTriplesEmitter(OutputStream out) {
+        super(out, VALUES);
+    }
+
+    @Override
+    public void start() {
+        // nothing before the first statement
+    }
+
+    @Override
+    public void prefix(String prefix, String iri) {
+        // N-Triples has no prefixes
+    }
+
+    @Override
+    public void triple(Triple triple) {
+        writeStatement(triple.getSubject(), triple.getPredicate(), triple.getObject());
+        write(END_OF_STATEMENT);
+    }
+
+    @Override
+    public void quad(Quad quad) {
+        writeStatement(quad.getSubject(), quad.getPredicate(), quad.getObject());
+        if (!quad.isDefaultGraph()) {
+            write(' ');
+            writeNode(quad.getGraph());
+        }
+        write(END_OF_STATEMENT);
+    }
+
+    @Override
+    public void finish() {
+        flush();
+    }
+
+    private void writeStatement(Node subject, Node predicate, Node object) {
+        writeNode(subject);
+        write(' ');
+        byte[] compiled = PREDICATES.get(predicate);
+        if (compiled != null) {
+            write(compiled);
+        } else {
+            writeNode(predicate);
+            write(' ');
+        }
+        writeNode(object);
+    }
+
+    @Override
+    protected void encodeNode(Node node) {
+        if (node.isURI()) {
+            write('<');
+            write(node.getURI(), IRI);
+            write('>');
+        } else if (node.isBlank()) {
+            write('_');
+            write(':');
+            write(NodeFmtLib.encodeBNodeLabel(node.getBlankNodeLabel()), null);
+        } else if (node.isLiteral()) {
+            write('"');
+            write(node.getLiteralLexicalForm(), STRING);
+            write('"');
+            writeLiteralSuffix(node);
+        } else {
+            throw new IllegalArgumentException("Cannot write node: " + node);
+        }
+    }
+
+    private void writeLiteralSuffix(Node literal) {
+        String lang = literal.getLiteralLanguage();
+        if (lang != null && !lang.isEmpty()) {
+            write('@');
+            write(lang, null);
+            return;
+        }
+        String datatype = literal.getLiteralDatatypeURI();
+        if (datatype != null && !datatype.equals(XSDDatatype.XSDstring.getURI())) {
+            write(datatypes.computeIfAbsent(datatype,
+                    uri -> ("^^<" + uri + ">").getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+}
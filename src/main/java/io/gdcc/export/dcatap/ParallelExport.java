@@ -0,0 +1,223 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFBase;
+
+/**
+ * Maps (and serializes) the files of a large dataset in parallel.
+ *
+ * The files array is split in chunks of a fixed number of files, each chunk is mapped on a
+ * fork/join worker into its own list of triples, or its own piece of output when streaming.
+ * The results are joined in the order of the chunks, so the output is the same
+ * no matter which worker did what, or when.
+ * Only a limited number of chunks is in progress at a time, so memory use stays bounded when streaming.
+ *
+ * When streaming Turtle or RDF/XML, and always for the N-Triples, N-Quads and binary formats,
+ * the chunks are serialized by the workers as well,
+ * as fragments that are concatenated between the document start and end.
+ * Other formats need the complete model, those only get the mapping done in parallel.
+ */
+class ParallelExport {
+    // fixed, not derived from the number of cores, otherwise the output would depend on the machine
+    static final int CHUNK_SIZE = 1000;
+
+    private final DCATAPExporter exporter;
+    private final ForkJoinPool pool;
+    private final int maxChunksInProgress;
+
+    ParallelExport(DCATAPExporter exporter) {
+        this(exporter, ForkJoinPool.commonPool());
+    }
+
+    ParallelExport(DCATAPExporter exporter, ForkJoinPool pool) {
+        this.exporter = exporter;
+        this.pool = pool;
+        this.maxChunksInProgress = 2 * pool.getParallelism();
+    }
+
+    /** Whether the format can be written as fragments that are concatenated. */
+    static boolean canWriteFragments(ExportFormat format) {
+        return format == ExportFormat.RDF_XML || format == ExportFormat.TURTLE || format.isAlwaysStreamed();
+    }
+
+    void write(JsonObject datasetJson, OutputStream outputStream, ExportConfig config) throws IOException {
+        ExportFormat format = config.getFormat();
+        if ((config.isStreaming() || format.isAlwaysStreamed()) && canWriteFragments(format)) {
+            // mapping and serializing are done together on the pool, so all of it is serializing
+            ExportMetrics.Recording recording = ExportMetrics.current();
+            if (recording != null) {
+                recording.begin(ExportMetrics.Phase.SERIALIZE);
+            }
+            writeFragments(datasetJson, outputStream, config);
+            if (recording != null) {
+                recording.end(ExportMetrics.Phase.SERIALIZE);
+            }
+        } else {
+            exporter.write(model -> mapDatasetJson(model, datasetJson, config), outputStream, config);
+        }
+    }
+
+    /** Same result as DCATAPExporter.mapDatasetJson, but the files are mapped in parallel. */
+    void mapDatasetJson(Model model, JsonObject datasetJson, ExportConfig config) {
+        exporter.setNsPrefixes(model);
+        Resource datasetModel = exporter.mapDatasetProperties(model, datasetJson, config);
+        JsonObject datasetVersion = datasetJson.getJsonObject("datasetVersion");
+        JsonObject licenseObj = datasetVersion.getJsonObject("license");
+        JsonArray files = datasetVersion.getJsonArray("files");
+        String persistentURL = datasetModel.getURI();
+
+        Graph graph = model.getGraph();
+        forEachChunk(files.size(),
+                (chunk) -> {
+                    List<Triple> triples = new ArrayList<>();
+                    mapChunk(new StreamRDFGraph(new StreamRDFBase() {
+                        @Override
+                        public void triple(Triple triple) {
+                            triples.add(triple);
+                        }
+                    }), chunk, persistentURL, files, licenseObj, config);
+                    return triples;
+                },
+                (List<Triple> triples) -> triples.forEach(graph::add));
+    }
+
+    private void writeFragments(JsonObject datasetJson, OutputStream outputStream, ExportConfig config)
+            throws IOException {
+        ExportFormat format = config.getFormat();
+        // the prefixes of the document, every fragment uses them
+        Model prefixModel = ModelFactory.createDefaultModel();
+        exporter.setNsPrefixes(prefixModel);
+        Map<String, String> prefixes = prefixModel.getNsPrefixMap();
+
+        JsonObject datasetVersion = datasetJson.getJsonObject("datasetVersion");
+        JsonObject licenseObj = datasetVersion.getJsonObject("license");
+        JsonArray files = datasetVersion.getJsonArray("files");
+        String persistentURL = datasetJson.getString("persistentUrl", "");
+
+        writeDocumentStart(outputStream, format, prefixes);
+        // the dataset itself is small, no need to do that in parallel
+        writeFragment(outputStream, format, fragment(format, prefixes, persistentURL, stream -> 
+                exporter.mapDatasetProperties(ModelFactory.createModelForGraph(new StreamRDFGraph(stream)), datasetJson,
+                        config)));
+        forEachChunk(files.size(),
+                (chunk) -> fragment(format, prefixes, persistentURL, stream -> 
+                        mapChunk(new StreamRDFGraph(stream), chunk, persistentURL, files, licenseObj, config)),
+                (byte[] bytes) -> {
+                    try {
+                        writeFragment(outputStream, format, bytes);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        writeDocumentEnd(outputStream, format);
+    }
+
+    private void mapChunk(Graph graph, int chunk, String persistentURL, JsonArray files, JsonObject licenseObj,
+            ExportConfig config) {
+        Model model = ModelFactory.createModelForGraph(graph);
+        Resource datasetModel = model.createResource(persistentURL);
+        int end = Math.min(files.size(), (chunk + 1) * CHUNK_SIZE);
+        for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+            exporter.addFileDistribution(model, datasetModel, files.getJsonObject(i), licenseObj, config);
+        }
+    }
+
+    /**
+     * Run the task for every chunk on the pool and give the results to the consumer, in chunk order,
+     * on the calling thread.
+     */
+    private <T> void forEachChunk(int fileCount, Function<Integer, T> task, Consumer<T> consumer) {
+        int chunks = (fileCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Deque<ForkJoinTask<T>> inProgress = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (next < chunks || !inProgress.isEmpty()) {
+                while (next < chunks && inProgress.size() < maxChunksInProgress) {
+                    int chunk = next++;
+                    inProgress.add(pool.submit(() -> task.apply(chunk)));
+                }
+                consumer.accept(inProgress.remove().join());
+            }
+        } finally {
+            // when something went wrong, there is no need to finish the rest
+            inProgress.forEach(t -> t.cancel(false));
+        }
+    }
+
+    // the serialized triples that the mapper pushes to the stream
+    private byte[] fragment(ExportFormat format, Map<String, String> prefixes, String persistentURL,
+            Consumer<StreamRDF> mapper) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        StreamRDF stream;
+        switch (format) {
+            case TURTLE:
+                stream = TurtleEmitter.fragment(bytes, prefixes);
+                break;
+            case RDF_XML:
+                stream = StreamRDFXMLWriter.fragment(bytes, prefixes);
+                break;
+            case NQUADS:
+                stream = new DatasetGraphStream(new NTriplesEmitter(bytes), NodeFactory.createURI(persistentURL));
+                break;
+            default:
+                // the blank node labels of these writers are taken from the internal ones, 
+                // so they are unique over all fragments
+                stream = exporter.createWriterStream(bytes, format);
+                break;
+        }
+        stream.start();
+        mapper.accept(stream);
+        stream.finish();
+        return bytes.toByteArray();
+    }
+
+    private static void writeDocumentStart(OutputStream outputStream, ExportFormat format,
+            Map<String, String> prefixes) throws IOException {
+        if (format == ExportFormat.TURTLE) {
+            outputStream.write(TurtleEmitter.documentStart(prefixes));
+        } else if (format == ExportFormat.RDF_XML) {
+            outputStream.write(StreamRDFXMLWriter.documentStart(prefixes));
+        }
+        // the other formats have no document start
+    }
+
+    private static void writeFragment(OutputStream outputStream, ExportFormat format, byte[] fragment)
+            throws IOException {
+        if (fragment.length == 0) {
+            return;
+        }
+        if (format == ExportFormat.TURTLE) {
+            // blank line between the blocks, like the Turtle writer does
+            outputStream.write('\n');
+        }
+        outputStream.write(fragment);
+    }
+
+    private static void writeDocumentEnd(OutputStream outputStream, ExportFormat format) throws IOException {
+        if (format == ExportFormat.RDF_XML) {
+            outputStream.write(StreamRDFXMLWriter.DOCUMENT_END.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
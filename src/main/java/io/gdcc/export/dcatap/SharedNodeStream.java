@@ -0,0 +1,115 @@
+package io.gdcc.export.dcatap;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+
+/**
+ * Writes the contact points and creators that were already written once as a reference to the first one.
+ *
+ * In a catalog the same people show up in dataset after dataset, each time as a new blank node
+ * with the same properties. The triples of a blank node are kept until it is linked from another node,
+ * the mapping adds them right before that. When it is linked as a contact point or creator,
+ * and a node with the same properties was written before, its triples are dropped
+ * and the link points to the earlier node.
+ *
+ * The nodes that were written are remembered by their properties in a bounded LRU map,
+ * so memory stays bounded; a node that was forgotten is just written again.
+ */
+class SharedNodeStream extends StreamRDFWrapper {
+    static final int DEFAULT_MAX_SHARED = 10_000;
+
+    private static final Set<Node> SHARED_PREDICATES =
+            Set.of(Vocab.DCAT.contactPoint.asNode(), Vocab.DCT.creator.asNode());
+
+    // the triples of blank nodes that are not linked yet
+    private final Map<Node, List<Triple>> pending = new LinkedHashMap<>();
+    private final Map<String, Node> written;
+    private long shared = 0;
+
+    SharedNodeStream(StreamRDF other) {
+        this(other, DEFAULT_MAX_SHARED);
+    }
+
+    SharedNodeStream(StreamRDF other, int maxShared) {
+        super(other);
+        this.written = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Node> eldest) {
+                return size() > maxShared;
+            }
+        };
+    }
+
+    /** The number of nodes that were written as a reference instead of in full. */
+    long getShared() {
+        return shared;
+    }
+
+    @Override
+    public void triple(Triple triple) {
+        if (triple.getSubject().isBlank()) {
+            pending.computeIfAbsent(triple.getSubject(), subject -> new ArrayList<>()).add(triple);
+            return;
+        }
+        Node object = triple.getObject();
+        List<Triple> description = object.isBlank() ? pending.remove(object) : null;
+        if (description != null && SHARED_PREDICATES.contains(triple.getPredicate())) {
+            String key = key(description);
+            Node first = key != null ? written.get(key) : null;
+            if (first != null) {
+                shared++;
+                super.triple(Triple.create(triple.getSubject(), triple.getPredicate(), first));
+                return;
+            }
+            if (key != null) {
+                written.put(key, object);
+            }
+        }
+        if (description != null) {
+            writeDescription(description);
+        }
+        super.triple(triple);
+    }
+
+    // the triples, and those of the blank nodes they link to
+    private void writeDescription(List<Triple> description) {
+        for (Triple triple : description) {
+            List<Triple> linked = triple.getObject().isBlank() ? pending.remove(triple.getObject()) : null;
+            if (linked != null) {
+                writeDescription(linked);
+            }
+            super.triple(triple);
+        }
+    }
+
+    /** The properties of the node, or null when it links to other blank nodes, those are not compared. */
+    private static String key(List<Triple> description) {
+        List<String> properties = new ArrayList<>(description.size());
+        for (Triple triple : description) {
+            if (triple.getObject().isBlank()) {
+                return null;
+            }
+            properties.add(NodeFmtLib.strNT(triple.getPredicate()) + ' ' + NodeFmtLib.strNT(triple.getObject()));
+        }
+        properties.sort(null);
+        return String.join("\n", properties);
+    }
+
+    @Override
+    public void finish() {
+        // blank nodes that were never linked
+        while (!pending.isEmpty()) {
+            Node subject = pending.keySet().iterator().next();
+            writeDescription(pending.remove(subject));
+        }
+        super.finish();
+    }
+}
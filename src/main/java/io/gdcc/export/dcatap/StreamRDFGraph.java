@@ -0,0 +1,59 @@
+package io.gdcc.export.dcatap;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.graph.impl.GraphBase;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.shared.PrefixMapping;
+import org.apache.jena.shared.impl.PrefixMappingImpl;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+/**
+ * A write-only Jena Graph that does not store anything, but pushes every added triple
+ * (and every namespace prefix) straight to a StreamRDF sink.
+ *
+ * Wrapping it in a Model lets the normal Model based mapping code
+ * (createResource, addProperty etc.) be used for streaming output,
+ * so nothing of the mapped dataset is kept on the heap.
+ * Note that the caller is responsible for calling start() and finish() on the stream.
+ */
+class StreamRDFGraph extends GraphBase {
+    private final StreamRDF stream;
+    private long tripleCount = 0;
+
+    StreamRDFGraph(StreamRDF stream) {
+        this.stream = stream;
+    }
+
+    /** Number of triples pushed to the stream so far. */
+    long getTripleCount() {
+        return tripleCount;
+    }
+
+    @Override
+    public void performAdd(Triple t) {
+        tripleCount++;
+        stream.triple(t);
+    }
+
+    @Override
+    public void performDelete(Triple t) {
+        throw new UnsupportedOperationException("Cannot delete from a streaming graph");
+    }
+
+    @Override
+    protected ExtendedIterator<Triple> graphBaseFind(Triple triplePattern) {
+        // triples are gone once they are written, so there is nothing to find
+        throw new UnsupportedOperationException("Cannot search a streaming graph");
+    }
+
+    @Override
+    protected PrefixMapping createPrefixMapping() {
+        return new PrefixMappingImpl() {
+            @Override
+            protected void set(String prefix, String uri) {
+                super.set(prefix, uri);
+                stream.prefix(prefix, uri);
+            }
+        };
+    }
+}
@@ -0,0 +1,308 @@
+package io.gdcc.export.dcatap;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.out.NodeFmtLib;
+
+/**
+ * Streaming RDF/XML writer.
+ *
+ * Jena only has streaming writers for line/block based formats (Turtle, N-Triples...),
+ * its RDF/XML writers always need the whole graph.
+ * This one writes an rdf:Description element for each run of triples with the same subject,
+ * as soon as they come in, so memory use does not depend on the size of the graph.
+ * Consecutive triples for the same subject end up in the same rdf:Description,
+ * a subject that comes back later just gets another rdf:Description, which is valid RDF/XML.
+ *
+ * Prefixes must be given before the first triple to end up on the rdf:RDF element,
+ * predicates in other namespaces get a local namespace declaration.
+ * The root element, the element names of the vocabulary and the constant values are encoded once
+ * for each set of namespaces (in practice there is only one) and copied for every triple.
+ *
+ * A fragment writer only writes the rdf:Description elements, without the document start and end.
+ * Fragments written with the same prefixes can be put between documentStart and DOCUMENT_END,
+ * that is how parts of a document can be written in parallel.
+ */
+class StreamRDFXMLWriter extends ByteEmitter {
+    static final String RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+    static final String DOCUMENT_END = "</rdf:RDF>\n";
+
+    private static final InternCache<Map<String, String>, Compiled> COMPILED =
+            new InternCache<>(16, Compiled::new);
+
+    private static final byte[] DESCRIPTION_ABOUT = "  <rdf:Description rdf:about=\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DESCRIPTION_NODE_ID = "  <rdf:Description rdf:nodeID=\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DESCRIPTION_END = "  </rdf:Description>\n".getBytes(StandardCharsets.UTF_8);
+
+    private static final Escaper ATTRIBUTE = c -> escapeXml(c, true);
+    private static final Escaper TEXT = c -> escapeXml(c, false);
+
+    private final boolean fragment;
+    private final Map<String, String> namespaces = new LinkedHashMap<>();
+    private Compiled compiled = null;
+    // element names for the predicates that are not in the vocabulary, seen so far
+    private final Map<Node, byte[][]> elementNames = new HashMap<>();
+    private final Map<String, byte[]> datatypes = new HashMap<>();
+    private int generatedPrefixCount = 0;
+    private Node currentSubject = null;
+
+    StreamRDFXMLWriter(OutputStream outputStream) {
+        this(outputStream, false);
+    }
+
+    /** A writer for a fragment, to be put in a document started with the same prefixes. */
+    static StreamRDFXMLWriter fragment(OutputStream outputStream, Map<String, String> prefixes) {
+        StreamRDFXMLWriter writer = new StreamRDFXMLWriter(outputStream, true);
+        prefixes.forEach(writer::prefix);
+        return writer;
+    }
+
+    private StreamRDFXMLWriter(OutputStream outputStream, boolean fragment) {
+        super(outputStream, null);
+        this.fragment = fragment;
+        namespaces.put("rdf", RDF);
+    }
+
+    @Override
+    public void start() {
+        // root element is written lazily, so we can collect the prefixes first
+    }
+
+    @Override
+    public void prefix(String prefix, String iri) {
+        if (compiled == null && !prefix.isEmpty()) {
+            namespaces.putIfAbsent(prefix, iri);
+        }
+    }
+
+    @Override
+    public void triple(Triple triple) {
+        writeRoot();
+        Node subject = triple.getSubject();
+        if (!subject.equals(currentSubject)) {
+            closeDescription();
+            if (subject.isBlank()) {
+                // The encoded label is a valid XML name and unique, so no need to keep a mapping
+                write(DESCRIPTION_NODE_ID);
+                write(NodeFmtLib.encodeBNodeLabel(subject.getBlankNodeLabel()), null);
+            } else {
+                write(DESCRIPTION_ABOUT);
+                write(subject.getURI(), ATTRIBUTE);
+            }
+            write('"');
+            write('>');
+            write('\n');
+            currentSubject = subject;
+        }
+        byte[][] element = compiled.elementNames.get(triple.getPredicate());
+        if (element == null) {
+            element = elementNames.computeIfAbsent(triple.getPredicate(),
+                    predicate -> elementName(predicate, namespaces, () -> "j." + generatedPrefixCount++));
+        }
+        write(element[0]);
+        Node object = triple.getObject();
+        writeNode(object);
+        if (object.isLiteral()) {
+            write(element[1]);
+        }
+    }
+
+    @Override
+    public void finish() {
+        writeRoot();
+        closeDescription();
+        if (!fragment) {
+            write(DOCUMENT_END, null);
+        }
+        flush();
+    }
+
+    private void writeRoot() {
+        if (compiled != null) {
+            return;
+        }
+        compiled = COMPILED.get(Collections.unmodifiableMap(new LinkedHashMap<>(namespaces)));
+        setConstants(compiled.values);
+        if (!fragment) {
+            write(compiled.documentStart);
+        }
+    }
+
+    private void closeDescription() {
+        if (currentSubject != null) {
+            write(DESCRIPTION_END);
+            currentSubject = null;
+        }
+    }
+
+    /** The XML declaration and the rdf:RDF start tag, the rdf prefix is always declared. */
+    static byte[] documentStart(Map<String, String> prefixes) {
+        Map<String, String> namespaces = new LinkedHashMap<>();
+        namespaces.put("rdf", RDF);
+        prefixes.forEach((prefix, iri) -> {
+            if (!prefix.isEmpty()) {
+                namespaces.putIfAbsent(prefix, iri);
+            }
+        });
+        return COMPILED.get(Collections.unmodifiableMap(namespaces)).documentStart;
+    }
+
+    // the object: everything after the element name, up to the closing tag for a literal
+    @Override
+    protected void encodeNode(Node object) {
+        if (object.isLiteral()) {
+            String lang = object.getLiteralLanguage();
+            if (lang != null && !lang.isEmpty()) {
+                write(" xml:lang=\"", null);
+                write(lang, ATTRIBUTE);
+                write('"');
+            } else {
+                String datatype = object.getLiteralDatatypeURI();
+                if (datatype != null && !datatype.equals(XSDDatatype.XSDstring.getURI())) {
+                    write(datatypes.computeIfAbsent(datatype, uri ->
+                            (" rdf:datatype=\"" + escapeXml(uri, true) + "\"").getBytes(StandardCharsets.UTF_8)));
+                }
+            }
+            write('>');
+            write(object.getLiteralLexicalForm(), TEXT);
+        } else if (object.isBlank()) {
+            write(" rdf:nodeID=\"", null);
+            write(NodeFmtLib.encodeBNodeLabel(object.getBlankNodeLabel()), null);
+            write("\"/>\n", null);
+        } else {
+            write(" rdf:resource=\"", null);
+            write(object.getURI(), ATTRIBUTE);
+            write("\"/>\n", null);
+        }
+    }
+
+    // the start of the element (with a namespace declaration if needed) and the closing tag
+    private static byte[][] elementName(Node predicate, Map<String, String> namespaces,
+            Supplier<String> generatedPrefix) {
+        String uri = predicate.getURI();
+        String name = null;
+        String declaration = "";
+        for (Map.Entry<String, String> ns : namespaces.entrySet()) {
+            String nsUri = ns.getValue();
+            if (uri.startsWith(nsUri) && isNCName(uri.substring(nsUri.length()))) {
+                name = ns.getKey() + ":" + uri.substring(nsUri.length());
+                break;
+            }
+        }
+        if (name == null) {
+            // not in one of the declared namespaces, split it ourselves
+            int split = uri.length();
+            while (split > 0 && isNCNameChar(uri.charAt(split - 1))) {
+                split--;
+            }
+            while (split < uri.length() && !isNCNameStartChar(uri.charAt(split))) {
+                split++;
+            }
+            if (split == 0 || split >= uri.length()) {
+                throw new IllegalArgumentException("Cannot write predicate as RDF/XML element: " + uri);
+            }
+            String prefix = generatedPrefix.get();
+            name = prefix + ":" + uri.substring(split);
+            declaration = " xmlns:" + prefix + "=\"" + escapeXml(uri.substring(0, split), true) + "\"";
+        }
+        return new byte[][] {
+            ("    <" + name + declaration).getBytes(StandardCharsets.UTF_8),
+            ("</" + name + ">\n").getBytes(StandardCharsets.UTF_8)
+        };
+    }
+
+    static boolean isNCName(String name) {
+        if (name.isEmpty() || !isNCNameStartChar(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!isNCNameChar(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNCNameStartChar(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isNCNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.';
+    }
+
+    static String escapeXml(String value, boolean attribute) {
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = escapeXml(c, attribute);
+            if (replacement != null) {
+                if (sb == null) {
+                    sb = new StringBuilder(value.length() + 16);
+                    sb.append(value, 0, i);
+                }
+                sb.append(replacement);
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? value : sb.toString();
+    }
+
+    private static String escapeXml(char c, boolean attribute) {
+        switch (c) {
+            case '&':
+                return "&amp;";
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '"':
+                return attribute ? "&quot;" : null;
+            case '\n':
+                return attribute ? "&#10;" : null;
+            case '\r':
+                return "&#13;";
+            case '\t':
+                return attribute ? "&#9;" : null;
+            default:
+                return null;
+        }
+    }
+
+    /** The root element and the vocabulary encoded for one set of namespaces. */
+    private static final class Compiled {
+        final byte[] documentStart;
+        final Map<Node, byte[][]> elementNames = new HashMap<>();
+        final Map<Node, byte[]> values;
+
+        Compiled(Map<String, String> namespaces) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            sb.append("<rdf:RDF");
+            namespaces.forEach((prefix, iri) ->
+                    sb.append("\n    xmlns:").append(prefix).append("=\"").append(escapeXml(iri, true)).append("\""));
+            sb.append(">\n");
+            documentStart = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+            int[] generatedPrefixCount = {0};
+            for (Node node : Vocab.constants()) {
+                if (node.isURI()) {
+                    elementNames.put(node, elementName(node, namespaces, () -> "j." + generatedPrefixCount[0]++));
+                }
+            }
+            // the vocabulary only has plain literals
+            values = compile(Vocab.constants(), node -> node.isLiteral()
+                    ? ">" + escapeXml(node.getLiteralLexicalForm(), false)
+                    : " rdf:resource=\"" + escapeXml(node.getURI(), true) + "\"/>\n");
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package io.gdcc.export.dcatap;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.jena.riot.system.PrefixMap;
+import org.apache.jena.riot.system.PrefixMapFactory;
+
+/**
+ * Streaming subject grouped Turtle writer with the prefix header and vocabulary precompiled.
+ *
+ * Consecutive triples with the same subject are written as one block, like Jena's TURTLE_BLOCKS.
+ * The header and the prefixed names of the predicates and constant values are encoded once
+ * for each set of prefixes (in practice there is only one) and copied for every triple.
+ * Only the other IRIs and literals are escaped, those are written in full, without looking for a prefix.
+ *
+ * Blank nodes get a label encoded from their internal label, instead of _:b0, _:b1 ... per writer.
+ * So a fragment writer, that does not write the prefix header,
+ * can write a part of a document that is concatenated with the other parts.
+ */
+class TurtleEmitter extends ByteEmitter {
+    private static final InternCache<Map<String, String>, Compiled> COMPILED =
+            new InternCache<>(16, Compiled::new);
+
+    private static final byte[] FIRST_PREDICATE = "\n        ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NEXT_PREDICATE = " ;\n        ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] END_OF_BLOCK = " .\n".getBytes(StandardCharsets.UTF_8);
+
+    private final boolean fragment;
+    private final Map<String, String> prefixes = new LinkedHashMap<>();
+    private Compiled compiled = null;
+    private boolean written = false;
+    private Node currentSubject = null;
+    private final Map<String, byte[]> datatypes = new HashMap<>();
+
+    TurtleEmitter(OutputStream out) {
+        this(out, false, Collections.emptyMap());
+    }
+
+    /** A writer for a fragment, to be put in a document started with the same prefixes. */
+    static TurtleEmitter fragment(OutputStream out, Map<String, String> prefixes) {
+        return new TurtleEmitter(out, true, prefixes);
+    }
+
+    private TurtleEmitter(OutputStream out, boolean fragment, Map<String, String> prefixes) {
+        super(out, null);
+        this.fragment = fragment;
+        this.prefixes.putAll(prefixes);
+    }
+
+    @Override
+    public void start() {
+        // header is written lazily, so we can collect the prefixes first
+    }
+
+    @Override
+    public void prefix(String prefix, String iri) {
+        if (compiled == null) {
+            prefixes.put(prefix, iri);
+        }
+    }
+
+    @Override
+    public void triple(Triple triple) {
+        writeHeader();
+        Node subject = triple.getSubject();
+        if (!subject.equals(currentSubject)) {
+            if (currentSubject != null) {
+                write(END_OF_BLOCK);
+            }
+            if (written) {
+                write('\n');
+            }
+            writeNode(subject);
+            write(FIRST_PREDICATE);
+            currentSubject = subject;
+            written = true;
+        } else {
+            write(NEXT_PREDICATE);
+        }
+        byte[] predicate = compiled.predicates.get(triple.getPredicate());
+        if (predicate != null) {
+            write(predicate);
+        } else {
+            writeNode(triple.getPredicate());
+        }
+        write(' ');
+        writeNode(triple.getObject());
+    }
+
+    @Override
+    public void finish() {
+        writeHeader();
+        if (currentSubject != null) {
+            write(END_OF_BLOCK);
+            currentSubject = null;
+        }
+        flush();
+    }
+
+    private void writeHeader() {
+        if (compiled != null) {
+            return;
+        }
+        compiled = COMPILED.get(Collections.unmodifiableMap(new LinkedHashMap<>(prefixes)));
+        setConstants(compiled.values);
+        if (!fragment && compiled.header.length > 0) {
+            write(compiled.header);
+            written = true;
+        }
+    }
+
+    /** The prefix header of a document, for the fragments written with the same prefixes. */
+    static byte[] documentStart(Map<String, String> prefixes) {
+        return COMPILED.get(Collections.unmodifiableMap(new LinkedHashMap<>(prefixes))).header;
+    }
+
+    @Override
+    protected void encodeNode(Node node) {
+        if (node.isURI()) {
+            write('<');
+            write(node.getURI(), NTriplesEmitter.IRI);
+            write('>');
+        } else if (node.isBlank()) {
+            write('_');
+            write(':');
+            write(NodeFmtLib.encodeBNodeLabel(node.getBlankNodeLabel()), null);
+        } else if (node.isLiteral()) {
+            write('"');
+            write(node.getLiteralLexicalForm(), NTriplesEmitter.STRING);
+            write('"');
+            String lang = node.getLiteralLanguage();
+            String datatype = node.getLiteralDatatypeURI();
+            if (lang != null && !lang.isEmpty()) {
+                write('@');
+                write(lang, null);
+            } else if (datatype != null && !datatype.equals(XSDDatatype.XSDstring.getURI())) {
+                write(datatypes.computeIfAbsent(datatype,
+                        uri -> ("^^" + NodeFmtLib.str(NodeFactory.createURI(uri), compiled.prefixMap))
+                                .getBytes(StandardCharsets.UTF_8)));
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot write node: " + node);
+        }
+    }
+
+    /** The header and the vocabulary encoded for one set of prefixes. */
+    private static final class Compiled {
+        final PrefixMap prefixMap;
+        final byte[] header;
+        final Map<Node, byte[]> predicates;
+        final Map<Node, byte[]> values;
+
+        Compiled(Map<String, String> prefixes) {
+            prefixMap = PrefixMapFactory.create(prefixes);
+            StringBuilder sb = new StringBuilder();
+            prefixes.forEach((prefix, iri) -> sb.append("PREFIX ").append(prefix).append(": <")
+                    .append(iri).append(">\n"));
+            header = sb.toString().getBytes(StandardCharsets.UTF_8);
+            predicates = compile(Vocab.constants(), node -> {
+                if (!node.isURI()) {
+                    return null;
+                }
+                return node.equals(Vocab.RDF.type.asNode()) ? "a" : NodeFmtLib.str(node, prefixMap);
+            });
+            values = compile(Vocab.constants(), node -> NodeFmtLib.str(node, prefixMap));
+        }
+    }
+}
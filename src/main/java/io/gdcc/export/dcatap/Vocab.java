@@ -0,0 +1,185 @@
+package io.gdcc.export.dcatap;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
+
+/**
+ * The properties and resources used by the DCAT-AP mapping, created once.
+ *
+ * These are not bound to a model, so they can be shared by all exports and threads,
+ * and there is no need to create (and look up) them again for every file.
+ */
+final class Vocab {
+
+    private Vocab() {
+    }
+
+    // Maximum number of distinct values kept in each of the intern caches
+    static final int MAX_INTERNED = 1024;
+
+    static final class RDF {
+        static final String NS = DCATAPExporter.RDF;
+        static final Property type = property(NS, "type");
+    }
+
+    static final class RDFS {
+        static final String NS = DCATAPExporter.RDFS;
+        // Note that the creators are typed with rdfs:type, this is what the mapping always did
+        static final Property type = property(NS, "type");
+        static final Property label = property(NS, "label");
+    }
+
+    static final class DCAT {
+        static final String NS = DCATAPExporter.DCAT;
+        static final Resource Catalog = resource(NS + "Catalog");
+        static final Resource Dataset = resource(NS + "Dataset");
+        static final Resource Distribution = resource(NS + "Distribution");
+        static final Property accessURL = property(NS, "accessURL");
+        static final Property bbox = property(NS, "bbox");
+        static final Property byteSize = property(NS, "byteSize");
+        static final Property contactPoint = property(NS, "contactPoint");
+        static final Property dataset = property(NS, "dataset");
+        static final Property distribution = property(NS, "distribution");
+        static final Property endDate = property(NS, "endDate");
+        static final Property keyword = property(NS, "keyword");
+        static final Property landingPage = property(NS, "landingPage");
+        static final Property mediaType = property(NS, "mediaType");
+        static final Property startDate = property(NS, "startDate");
+        static final Property theme = property(NS, "theme");
+        static final Property version = property(NS, "version");
+    }
+
+    static final class DCT {
+        static final String NS = DCATAPExporter.DCT;
+        static final Resource LicenseDocument = resource(NS + "LicenseDocument");
+        static final Resource Location = resource(NS + "Location");
+        static final Resource PeriodOfTime = resource(NS + "PeriodOfTime");
+        static final Property creator = property(NS, "creator");
+        static final Property description = property(NS, "description");
+        static final Property format = property(NS, "format");
+        static final Property identifier = property(NS, "identifier");
+        static final Property isReferencedBy = property(NS, "isReferencedBy");
+        static final Property issued = property(NS, "issued");
+        static final Property language = property(NS, "language");
+        static final Property license = property(NS, "license");
+        static final Property modified = property(NS, "modified");
+        static final Property rights = property(NS, "rights");
+        static final Property spatial = property(NS, "spatial");
+        static final Property temporal = property(NS, "temporal");
+        static final Property title = property(NS, "title");
+    }
+
+    // the other identifiers of a dataset
+    static final class ADMS {
+        static final String NS = DCATAPExporter.ADMS;
+        static final Resource Identifier = resource(NS + "Identifier");
+        static final Property identifier = property(NS, "identifier");
+        static final Property schemaAgency = property(NS, "schemaAgency");
+    }
+
+    static final class SKOS {
+        static final String NS = DCATAPExporter.SKOS;
+        static final Property notation = property(NS, "notation");
+    }
+
+    static final class VCARD {
+        static final String NS = DCATAPExporter.VCARD;
+        static final Property fn = property(NS, "fn");
+        static final Property hasEmail = property(NS, "hasEmail");
+        static final Property organizationName = property(NS, "organization-name");
+    }
+
+    static final class FOAF {
+        static final String NS = DCATAPExporter.FOAF;
+        static final Resource Person = resource(NS + "Person");
+        static final Property name = property(NS, "name");
+    }
+
+    static final class SPDX {
+        static final String NS = DCATAPExporter.SPDX;
+        static final Property algorithm = property(NS, "algorithm");
+        static final Property checksum = property(NS, "checksum");
+        static final Property checksumValue = property(NS, "checksumValue");
+        static final Literal checksumAlgorithm_md5 = literal("checksumAlgorithm_md5");
+        static final Literal checksumAlgorithm_sha1 = literal("checksumAlgorithm_sha1");
+        static final Literal checksumAlgorithm_sha224 = literal("checksumAlgorithm_sha224");
+        static final Literal checksumAlgorithm_sha256 = literal("checksumAlgorithm_sha256");
+        static final Literal checksumAlgorithm_sha512 = literal("checksumAlgorithm_sha512");
+    }
+
+    // Hydra, for the links between the pages of a paged export
+    static final class HYDRA {
+        static final String NS = DCATAPExporter.HYDRA;
+        static final Resource PartialCollectionView = resource(NS + "PartialCollectionView");
+        static final Property first = property(NS, "first");
+        static final Property last = property(NS, "last");
+        static final Property next = property(NS, "next");
+        static final Property previous = property(NS, "previous");
+        static final Property totalItems = property(NS, "totalItems");
+        static final Property view = property(NS, "view");
+    }
+
+    // EU access right authority table
+    static final class AccessRight {
+        static final String NS = "http://publications.europa.eu/resource/authority/access-right/";
+        static final Resource PUBLIC = resource(NS + "PUBLIC");
+        static final Resource RESTRICTED = resource(NS + "RESTRICTED");
+    }
+
+    // datatype of the WKT literals of bounding boxes
+    static final String WKT_LITERAL = DCATAPExporter.GSP + "wktLiteral";
+
+    static final String IANA_MEDIA_TYPES = "http://www.iana.org/assignments/media-types/";
+
+    private static final InternCache<String, Resource> RESOURCES =
+            new InternCache<>(MAX_INTERNED, ResourceFactory::createResource);
+    private static final InternCache<String, Literal> MEDIA_TYPES =
+            new InternCache<>(MAX_INTERNED, mimeType -> literal(IANA_MEDIA_TYPES + mimeType));
+
+    /** A resource for a value that is used for many files or datasets, like a license URI. */
+    static Resource sharedResource(String uri) {
+        return RESOURCES.get(uri);
+    }
+
+    /** The IANA media type, for the contentType of a file. */
+    static Literal mediaType(String mimeType) {
+        return MEDIA_TYPES.get(mimeType);
+    }
+
+    /** All the constant properties, resources and literals above, for precompiling their serialization. */
+    static List<Node> constants() {
+        List<Node> constants = new ArrayList<>();
+        for (Class<?> vocabulary : Vocab.class.getDeclaredClasses()) {
+            for (Field field : vocabulary.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) && RDFNode.class.isAssignableFrom(field.getType())) {
+                    try {
+                        constants.add(((RDFNode) field.get(null)).asNode());
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        }
+        return constants;
+    }
+
+    private static Property property(String ns, String localName) {
+        return ResourceFactory.createProperty(ns, localName);
+    }
+
+    private static Resource resource(String uri) {
+        return ResourceFactory.createResource(uri);
+    }
+
+    private static Literal literal(String value) {
+        return ResourceFactory.createPlainLiteral(value);
+    }
+}
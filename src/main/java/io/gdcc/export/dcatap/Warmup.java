@@ -0,0 +1,163 @@
+package io.gdcc.export.dcatap;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.sys.JenaSystem;
+
+/**
+ * Warm-up of the exporter in the background, right after Dataverse loaded it.
+ *
+ * Without it the Jena initialization, the lookup of the writers and the class loading
+ * all happen in the first export, which is often a harvester request with a timeout.
+ * The warm-up does these steps on a daemon thread, and then exports a small bundled sample dataset
+ * in all formats, so the mapping and serialization code is loaded (and a bit compiled) too.
+ * The time of each step is kept, to see which one dominates.
+ *
+ * It is disabled by default, it is enabled with the JVM option `dataverse.dcat-ap.warmup=true`.
+ * Warm-up problems are logged, they never make the exporter fail.
+ */
+public class Warmup {
+    private static final Logger logger = Logger.getLogger(Warmup.class.getCanonicalName());
+
+    // System property to enable the warm-up in Dataverse
+    static final String ENABLED_PROPERTY = "dataverse.dcat-ap.warmup";
+    static final String SAMPLE_DATASET = "sample-dataset.json";
+
+    // Only the first exporter that is created starts the warm-up
+    private static volatile Warmup started = null;
+
+    private final Map<String, Duration> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Throwable failure = null;
+
+    /** Start the warm-up if it is enabled and not started already, returns it or null when disabled. */
+    static Warmup startIfEnabled() {
+        if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return null;
+        }
+        synchronized (Warmup.class) {
+            if (started == null) {
+                started = new Warmup();
+                Thread thread = new Thread(started::run, "dcat-ap-warmup");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            return started;
+        }
+    }
+
+    /** The warm-up that was started, or null if it is not enabled. */
+    static Warmup getStarted() {
+        return started;
+    }
+
+    /** Run all steps on the current thread. */
+    void run() {
+        try {
+            step("jena-init", JenaSystem::init);
+            step("writers", Warmup::resolveWriters);
+            step("sample-export", Warmup::exportSample);
+            logger.info("DCAT-AP exporter warm-up done: " + timingsInMillis());
+        } catch (Throwable e) {
+            failure = e;
+            logger.log(Level.WARNING, "DCAT-AP exporter warm-up failed after " + timingsInMillis(), e);
+        } finally {
+            done.countDown();
+        }
+    }
+
+    private void step(String name, Runnable step) {
+        long start = System.nanoTime();
+        step.run();
+        timings.put(name, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    // Find the writer for each format, and load its classes by writing an empty model,
+    // this also parses the bundled JSON-LD context
+    private static void resolveWriters() {
+        DCATAPExporter exporter = new DCATAPExporter();
+        for (ExportFormat format : ExportFormat.values()) {
+            OutputStream nowhere = OutputStream.nullOutputStream();
+            exporter.createWriterStream(nowhere, format);
+            if (!format.isAlwaysStreamed()) {
+                DCATAPExporter.writeModel(ModelFactory.createDefaultModel(), nowhere, format);
+            }
+        }
+    }
+
+    // Export the sample in all formats, streaming and not streaming
+    private static void exportSample() {
+        JsonObject datasetJson = readSampleDataset();
+        DCATAPExporter exporter = new DCATAPExporter();
+        for (ExportFormat format : ExportFormat.values()) {
+            ExportConfig config = ExportConfig.DEFAULT.withFormat(format);
+            try {
+                exporter.writeDatasetJson(datasetJson, OutputStream.nullOutputStream(), config);
+                if (!format.isAlwaysStreamed()) {
+                    exporter.writeDatasetJson(datasetJson, OutputStream.nullOutputStream(),
+                            config.withStreaming(true));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static JsonObject readSampleDataset() {
+        try (InputStream in = Warmup.class.getResourceAsStream(SAMPLE_DATASET);
+                JsonReader reader = Json.createReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return reader.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Whether all steps are done, or the warm-up failed. */
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /** Wait for the warm-up to be done, returns false if it is still running after the timeout. */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    /** The exception that stopped the warm-up, or null. */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /** The time each step took, in the order they ran, only the steps that are done. */
+    public Map<String, Duration> getTimings() {
+        synchronized (timings) {
+            return new LinkedHashMap<>(timings);
+        }
+    }
+
+    private String timingsInMillis() {
+        StringBuilder sb = new StringBuilder();
+        getTimings().forEach((name, duration) -> {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(name).append(' ').append(duration.toMillis()).append(" ms");
+        });
+        return sb.toString();
+    }
+}
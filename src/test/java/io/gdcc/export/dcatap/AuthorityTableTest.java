@@ -0,0 +1,109 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class AuthorityTableTest {
+
+    static JsonObject datasetJson;
+
+    @BeforeAll
+    public static void setUp() {
+        datasetJson = TestDatasets.cars();
+    }
+
+    static Resource concept(String table, String code) {
+        return ResourceFactory.createResource(AuthorityTable.AUTHORITY + table + "/" + code);
+    }
+
+    @Test
+    public void testBundledTables() {
+        assertEquals(concept("file-type", "CSV"), AuthorityTable.fileType().get("text/csv"));
+        assertEquals(concept("language", "ENG"), AuthorityTable.language().get(" english "));
+        assertEquals(concept("data-theme", "HEAL"), AuthorityTable.dataTheme().get("Medicine, Health and Life Sciences"));
+        assertEquals(concept("licence", "CC_BY_4_0"), AuthorityTable.licence().get("CC BY 4.0"));
+        assertNull(AuthorityTable.dataTheme().get("Other"));
+        assertNull(AuthorityTable.language().get(""));
+        assertNull(AuthorityTable.language().get(null));
+        assertTrue(AuthorityTable.fileType().size() > 0);
+    }
+
+    @Test
+    public void testManyValues() {
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new String[] {"Value " + i, "CODE_" + i});
+        }
+        // only the first one of a duplicate value
+        rows.add(new String[] {"VALUE 7", "OTHER"});
+        AuthorityTable table = new AuthorityTable("http://example.org/", rows);
+        assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("http://example.org/CODE_" + i, table.get("value " + i).getURI());
+        }
+        assertNull(table.get("Value 1000"));
+    }
+
+    @Test
+    public void testDatasetMapping() {
+        JsonObject datasetVersion = datasetJson.getJsonObject("datasetVersion");
+        JsonObject citation = datasetVersion.getJsonObject("metadataBlocks").getJsonObject("citation");
+        JsonArrayBuilder fields = Json.createArrayBuilder();
+        fields.add(Json.createObjectBuilder()
+                .add("typeName", "subject")
+                .add("multiple", true)
+                .add("typeClass", "controlledVocabulary")
+                .add("value", Json.createArrayBuilder().add("Law").add("Other")));
+        fields.add(Json.createObjectBuilder()
+                .add("typeName", "language")
+                .add("multiple", true)
+                .add("typeClass", "controlledVocabulary")
+                .add("value", Json.createArrayBuilder().add("French").add("Klingon")));
+        JsonObject json = Json.createObjectBuilder(datasetJson)
+                .add("datasetVersion", Json.createObjectBuilder(datasetVersion)
+                        .add("metadataBlocks", Json.createObjectBuilder()
+                                .add("citation", Json.createObjectBuilder(citation).add("fields", fields))))
+                .build();
+        Model model = new DCATAPExporter().createRDFModelFromDatasetJson(json);
+        Resource dataset = model.getResource(json.getString("persistentUrl"));
+
+        assertEquals(List.of(concept("data-theme", "JUST")),
+                model.listObjectsOfProperty(dataset, Vocab.DCAT.theme).toList());
+        assertTrue(model.contains(dataset, Vocab.DCT.language, concept("language", "FRA")));
+        // not in the table, so still the name
+        assertTrue(model.contains(dataset, Vocab.DCT.language, model.createLiteral("Klingon", "en")));
+    }
+
+    @Test
+    public void testDistributionMapping() {
+        JsonObject file = Json.createObjectBuilder()
+                .add("label", "data.csv")
+                .add("restricted", false)
+                .add("dataFile", Json.createObjectBuilder()
+                        .add("id", 1)
+                        .add("filesize", 10)
+                        .add("contentType", "text/csv; charset=UTF-8"))
+                .build();
+        JsonObject license = Json.createObjectBuilder().add("name", "CC BY-SA 4.0").build();
+        Model model = new DCATAPExporter().createRDFModelFromDatasetJson(datasetJson);
+        Resource distribution = new DCATAPExporter().createFileDistribution(model, file, license);
+
+        assertTrue(model.contains(distribution, Vocab.DCT.format, concept("file-type", "CSV")));
+        assertTrue(model.contains(distribution, Vocab.DCAT.mediaType, Vocab.mediaType("text/csv; charset=UTF-8")));
+        assertTrue(model.contains(distribution, Vocab.DCT.license, concept("licence", "CC_BYSA_4_0")));
+
+        JsonObject unknownLicense = Json.createObjectBuilder().add("name", "My own license").build();
+        distribution = new DCATAPExporter().createFileDistribution(model, file, unknownLicense);
+        assertTrue(model.contains(distribution, Vocab.DCT.license, model.createLiteral("My own license", "en")));
+    }
+}
@@ -0,0 +1,59 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class BulkExporterTest {
+
+    static JsonObject datasetJson;
+
+    @BeforeAll
+    public static void setUp() {
+        datasetJson = TestDatasets.cars();
+    }
+
+    @Test
+    public void testExportAll() throws Exception {
+        DCATAPExporter exporter = new DCATAPExporter();
+        BulkExporter bulkExporter = new BulkExporter(exporter, 4, 8);
+        List<BulkExportItem> items = new ArrayList<>();
+        List<ByteArrayOutputStream> outputs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            outputs.add(out);
+            // one bad dataset, without a datasetVersion
+            JsonObject json = i == 7 ? Json.createObjectBuilder().add("persistentUrl", "bad").build() : datasetJson;
+            items.add(new BulkExportItem("dataset-" + i, TestDatasets.provider(json), () -> out));
+        }
+
+        BulkExportReport report = bulkExporter.exportAll(items, ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE));
+
+        assertEquals(20, report.getTotal());
+        assertEquals(19, report.getSucceeded());
+        assertEquals(1, report.getFailed());
+        assertEquals("dataset-7", report.getFailures().get(0).getId());
+        assertTrue(report.getBytesWritten() > 0);
+
+        Model expected = exporter.createRDFModelFromDatasetJson(datasetJson);
+        for (int i = 0; i < outputs.size(); i++) {
+            if (i == 7) {
+                continue;
+            }
+            Model actual = ModelFactory.createDefaultModel();
+            actual.read(new ByteArrayInputStream(outputs.get(i).toByteArray()), null, "TURTLE");
+            assertTrue(expected.isIsomorphicWith(actual));
+        }
+        // the exporter itself is not changed
+        assertEquals("RDF/XML", exporter.getOutputLang());
+    }
+}
@@ -0,0 +1,111 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Function;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFOps;
+import org.junit.jupiter.api.Test;
+
+public class ByteEmitterTest {
+    private static final Map<String, String> PREFIXES = Map.of(
+            "dcat", DCATAPExporter.DCAT, "dct", DCATAPExporter.DCT, "spdx", DCATAPExporter.SPDX);
+
+    // constants of the vocabulary mixed with values that need escaping
+    private static Model testModel() {
+        Model model = ModelFactory.createDefaultModel();
+        model.setNsPrefixes(PREFIXES);
+        Resource dataset = model.createResource("https://example.org/dataset?id=doi:10.5072/FK2&version=1.0");
+        dataset.addProperty(Vocab.RDF.type, Vocab.DCAT.Dataset);
+        dataset.addProperty(Vocab.DCT.title, "Quotes \" and \\ backslash\nnew line\r\ttab <&>", "en");
+        dataset.addProperty(Vocab.DCT.description, "Ünïcödé, 中文 and a surrogate pair 😀");
+        dataset.addProperty(Vocab.DCT.issued, "2024-01-01", XSDDatatype.XSDdate);
+        dataset.addProperty(model.createProperty("http://example.org/other#", "prop"), "not in the vocabulary");
+        for (int i = 0; i < 3; i++) {
+            Resource file = model.createResource();
+            dataset.addProperty(Vocab.DCAT.distribution, file);
+            file.addProperty(Vocab.RDF.type, Vocab.DCAT.Distribution);
+            file.addProperty(Vocab.DCT.license, Vocab.sharedResource("http://creativecommons.org/publicdomain/zero/1.0"));
+            file.addProperty(Vocab.DCAT.mediaType, Vocab.mediaType("text/plain"));
+            file.addLiteral(Vocab.DCAT.byteSize, 1000L * i);
+            Resource checksum = model.createResource();
+            file.addProperty(Vocab.SPDX.checksum, checksum);
+            checksum.addProperty(Vocab.SPDX.algorithm, Vocab.SPDX.checksumAlgorithm_md5);
+            checksum.addProperty(Vocab.SPDX.checksumValue, String.format("%032x", i));
+        }
+        return model;
+    }
+
+    private static Model roundTrip(Model model, Function<OutputStream, StreamRDF> emitter, Lang lang) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamRDF stream = emitter.apply(out);
+        stream.start();
+        StreamRDFOps.sendGraphToStream(model.getGraph(), stream);
+        stream.finish();
+        Model result = ModelFactory.createDefaultModel();
+        RDFDataMgr.read(result, new ByteArrayInputStream(out.toByteArray()), lang);
+        return result;
+    }
+
+    @Test
+    public void testNTriples() {
+        Model model = testModel();
+        assertTrue(model.isIsomorphicWith(roundTrip(model, NTriplesEmitter::new, Lang.NTRIPLES)));
+    }
+
+    @Test
+    public void testTurtle() {
+        Model model = testModel();
+        assertTrue(model.isIsomorphicWith(roundTrip(model, TurtleEmitter::new, Lang.TURTLE)));
+    }
+
+    @Test
+    public void testRDFXML() {
+        Model model = testModel();
+        assertTrue(model.isIsomorphicWith(roundTrip(model, StreamRDFXMLWriter::new, Lang.RDFXML)));
+    }
+
+    @Test
+    public void testSameAsJena() {
+        Model model = testModel();
+        ByteArrayOutputStream jena = new ByteArrayOutputStream();
+        RDFDataMgr.write(jena, model, Lang.NTRIPLES);
+        ByteArrayOutputStream ours = new ByteArrayOutputStream();
+        StreamRDF stream = new NTriplesEmitter(ours);
+        StreamRDFOps.sendGraphToStream(model.getGraph(), stream);
+        stream.finish();
+        // same statements, same encoding of the blank nodes
+        assertEquals(
+                jena.toString(StandardCharsets.UTF_8).lines().sorted().toList(),
+                ours.toString(StandardCharsets.UTF_8).lines().sorted().toList());
+    }
+
+    @Test
+    public void testFragments() {
+        Model model = testModel();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(TurtleEmitter.documentStart(PREFIXES));
+        ByteArrayOutputStream fragment = new ByteArrayOutputStream();
+        StreamRDF stream = TurtleEmitter.fragment(fragment, PREFIXES);
+        StreamRDFOps.sendTriplesToStream(model.getGraph(), stream);
+        stream.finish();
+        String turtle = fragment.toString(StandardCharsets.UTF_8);
+        assertFalse(turtle.contains("PREFIX"));
+        assertTrue(turtle.contains("dct:title"));
+        out.writeBytes(fragment.toByteArray());
+        Model result = ModelFactory.createDefaultModel();
+        RDFDataMgr.read(result, new ByteArrayInputStream(out.toByteArray()), Lang.TURTLE);
+        assertTrue(model.isIsomorphicWith(result));
+    }
+}
@@ -0,0 +1,112 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class CanonicalExportTest {
+
+    static JsonObject datasetJson;
+    static final ExportConfig CANONICAL = ExportConfig.DEFAULT.withCanonical(true);
+
+    @BeforeAll
+    public static void setUp() {
+        datasetJson = TestDatasets.cars();
+    }
+
+    static byte[] export(JsonObject json, ExportConfig config) throws Exception {
+        DCATAPExporter exporter = new DCATAPExporter();
+        exporter.setExportCache(null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.exportDataset(TestDatasets.provider(json), out, config);
+        return out.toByteArray();
+    }
+
+    static Model read(byte[] bytes, Lang lang) {
+        Model model = ModelFactory.createDefaultModel();
+        RDFDataMgr.read(model, new ByteArrayInputStream(bytes), lang);
+        return model;
+    }
+
+    @Test
+    public void testSameBytesEveryTime() throws Exception {
+        for (ExportFormat format : ExportFormat.values()) {
+            ExportConfig config = CANONICAL.withFormat(format);
+            byte[] first = export(datasetJson, config);
+            byte[] second = export(datasetJson, config);
+            assertTrue(first.length > 0, format.name());
+            assertArrayEquals(first, second, "Not byte stable: " + format);
+        }
+    }
+
+    @Test
+    public void testNoBlankNodes() throws Exception {
+        Map<ExportFormat, Lang> formats = Map.of(ExportFormat.RDF_XML, Lang.RDFXML, ExportFormat.TURTLE, Lang.TURTLE,
+                ExportFormat.JSON_LD, Lang.JSONLD, ExportFormat.NTRIPLES, Lang.NTRIPLES);
+        for (Map.Entry<ExportFormat, Lang> format : formats.entrySet()) {
+            Model model = read(export(datasetJson, CANONICAL.withFormat(format.getKey())), format.getValue());
+            assertFalse(model.isEmpty());
+            model.listStatements().forEach(statement -> {
+                assertFalse(statement.getSubject().isAnon(), statement.toString());
+                assertFalse(statement.getObject().isAnon(), statement.toString());
+            });
+        }
+    }
+
+    @Test
+    public void testSameTriplesAsTheMapping() throws Exception {
+        Model expected = new DCATAPExporter().createRDFModelFromDatasetJson(datasetJson);
+        Model canonical = read(export(datasetJson, CANONICAL.withFormat(ExportFormat.TURTLE)), Lang.TURTLE);
+
+        // back to blank nodes, the skolem IRIs only replace those
+        String genidBase = CanonicalWriter.genidBase(CANONICAL);
+        Map<Node, Node> blankNodes = new HashMap<>();
+        Graph graph = ModelFactory.createDefaultModel().getGraph();
+        canonical.getGraph().find().forEach(triple -> graph.add(Triple.create(
+                unskolemize(triple.getSubject(), genidBase, blankNodes),
+                triple.getPredicate(),
+                unskolemize(triple.getObject(), genidBase, blankNodes))));
+        assertTrue(expected.isIsomorphicWith(ModelFactory.createModelForGraph(graph)));
+    }
+
+    private static Node unskolemize(Node node, String genidBase, Map<Node, Node> blankNodes) {
+        if (node.isURI() && node.getURI().startsWith(genidBase)) {
+            return blankNodes.computeIfAbsent(node, iri -> NodeFactory.createBlankNode());
+        }
+        return node;
+    }
+
+    @Test
+    public void testSameAuthorSameIri() throws Exception {
+        JsonObject other = Json.createObjectBuilder(datasetJson)
+                .add("persistentUrl", "https://doi.org/10.5072/FK2/OTHER")
+                .build();
+        ExportConfig config = CANONICAL.withFormat(ExportFormat.NTRIPLES);
+        Model first = read(export(datasetJson, config), Lang.NTRIPLES);
+        Model second = read(export(other, config), Lang.NTRIPLES);
+
+        Set<RDFNode> firstCreators = first.listObjectsOfProperty(Vocab.DCT.creator).toSet();
+        Set<RDFNode> secondCreators = second.listObjectsOfProperty(Vocab.DCT.creator).toSet();
+        assertFalse(firstCreators.isEmpty());
+        assertEquals(firstCreators, secondCreators);
+        assertTrue(firstCreators.stream().allMatch(
+                creator -> creator.asResource().getURI().startsWith("http://localhost:8080/.well-known/genid/")));
+    }
+}
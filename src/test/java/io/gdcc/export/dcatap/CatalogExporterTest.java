@@ -0,0 +1,158 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.gdcc.spi.export.ExportDataProvider;
+import io.gdcc.spi.export.ExportException;
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class CatalogExporterTest {
+    static final String CATALOG = "https://demo.dataverse.org";
+
+    static JsonObject datasetJson;
+
+    @BeforeAll
+    public static void setUp() {
+        datasetJson = TestDatasets.cars();
+    }
+
+    // the same dataset under another persistent URL, so the datasets share their contacts, creators and license
+    static List<ExportDataProvider> datasets(int count) {
+        List<ExportDataProvider> datasets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            JsonObject json = Json.createObjectBuilder(datasetJson)
+                    .add("persistentUrl", "https://doi.org/10.5072/FK2/CATALOG" + i)
+                    .build();
+            datasets.add(TestDatasets.provider(json));
+        }
+        return datasets;
+    }
+
+    static CatalogExporter catalogExporter() {
+        return new CatalogExporter(new DCATAPExporter(), CATALOG, "Demo Dataverse", "All datasets of the demo");
+    }
+
+    @Test
+    public void testCatalogHasAllDatasets() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BulkExportReport report = catalogExporter()
+                .export(datasets(3), out, ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE));
+
+        assertEquals(3, report.getSucceeded());
+        assertEquals(0, report.getFailed());
+        assertEquals(out.size(), report.getBytesWritten());
+
+        Model model = ModelFactory.createDefaultModel();
+        model.read(new ByteArrayInputStream(out.toByteArray()), null, "TURTLE");
+        Resource catalog = model.getResource(CATALOG);
+        assertTrue(model.contains(catalog, Vocab.RDF.type, Vocab.DCAT.Catalog));
+        assertEquals(3, model.listObjectsOfProperty(catalog, Vocab.DCAT.dataset).toList().size());
+        for (int i = 0; i < 3; i++) {
+            Resource dataset = model.getResource("https://doi.org/10.5072/FK2/CATALOG" + i);
+            assertTrue(model.contains(catalog, Vocab.DCAT.dataset, dataset));
+            assertTrue(model.contains(dataset, Vocab.RDF.type, Vocab.DCAT.Dataset));
+            assertTrue(model.contains(dataset, Vocab.DCAT.distribution));
+        }
+    }
+
+    @Test
+    public void testSharedResourcesAreWrittenOnce() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        catalogExporter().export(datasets(3), out, ExportConfig.DEFAULT.withFormat(ExportFormat.NTRIPLES));
+
+        Model model = ModelFactory.createDefaultModel();
+        model.read(new ByteArrayInputStream(out.toByteArray()), null, "N-TRIPLES");
+        Model single = new DCATAPExporter().createRDFModelFromDatasetJson(datasetJson);
+        List<RDFNode> contactPoints = model.listObjectsOfProperty(Vocab.DCAT.contactPoint).toList();
+        List<RDFNode> creators = model.listObjectsOfProperty(Vocab.DCT.creator).toList();
+        assertEquals(single.listObjectsOfProperty(Vocab.DCAT.contactPoint).toList().size(), contactPoints.size());
+        assertEquals(single.listObjectsOfProperty(Vocab.DCT.creator).toList().size(), creators.size());
+        for (int i = 0; i < 3; i++) {
+            Resource dataset = model.getResource("https://doi.org/10.5072/FK2/CATALOG" + i);
+            assertEquals(contactPoints.size(), model.listObjectsOfProperty(dataset, Vocab.DCAT.contactPoint).toList().size());
+            assertEquals(creators.size(), model.listObjectsOfProperty(dataset, Vocab.DCT.creator).toList().size());
+        }
+
+        Resource license = model.getResource("http://creativecommons.org/publicdomain/zero/1.0");
+        assertTrue(model.contains(license, Vocab.RDF.type, Vocab.DCT.LicenseDocument));
+        assertTrue(model.contains(license, Vocab.RDFS.label, "CC0 1.0"));
+        String ntriples = out.toString();
+        String licenseType = "<http://creativecommons.org/publicdomain/zero/1.0> "
+                + "<http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://purl.org/dc/terms/LicenseDocument>";
+        assertEquals(ntriples.indexOf(licenseType), ntriples.lastIndexOf(licenseType));
+    }
+
+    @Test
+    public void testNQuadsHaveAGraphPerDataset() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        catalogExporter().export(datasets(2), out, ExportConfig.DEFAULT.withFormat(ExportFormat.NQUADS));
+
+        Dataset dataset = DatasetFactory.create();
+        RDFDataMgr.read(dataset, new ByteArrayInputStream(out.toByteArray()), Lang.NQUADS);
+        assertTrue(dataset.containsNamedModel("https://doi.org/10.5072/FK2/CATALOG0"));
+        assertTrue(dataset.containsNamedModel("https://doi.org/10.5072/FK2/CATALOG1"));
+        Model catalog = dataset.getDefaultModel();
+        assertTrue(catalog.contains(catalog.getResource(CATALOG), Vocab.RDF.type, Vocab.DCAT.Catalog));
+        assertEquals(2, catalog.listObjectsOfProperty(Vocab.DCAT.dataset).toList().size());
+    }
+
+    @Test
+    public void testFailedDatasetIsSkipped() throws Exception {
+        List<ExportDataProvider> datasets = datasets(2);
+        datasets.add(1, new ExportDataProvider() {
+            @Override
+            public JsonObject getDatasetJson() {
+                throw new IllegalStateException("not found");
+            }
+
+            @Override
+            public JsonObject getDatasetORE() {
+                return null;
+            }
+
+            @Override
+            public JsonArray getDatasetFileDetails() {
+                return null;
+            }
+
+            @Override
+            public JsonObject getDatasetSchemaDotOrg() {
+                return null;
+            }
+
+            @Override
+            public String getDataCiteXml() {
+                return null;
+            }
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BulkExportReport report = catalogExporter()
+                .export(datasets, out, ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE));
+
+        assertEquals(2, report.getSucceeded());
+        assertEquals(1, report.getFailed());
+        assertEquals("dataset 2", report.getFailures().get(0).getId());
+    }
+
+    @Test
+    public void testJsonLdIsNotSupported() {
+        assertThrows(ExportException.class, () -> catalogExporter()
+                .export(datasets(1), new ByteArrayOutputStream(), ExportConfig.DEFAULT.withFormat(ExportFormat.JSON_LD)));
+    }
+}
@@ -10,10 +10,12 @@ import jakarta.json.JsonReader;
 import jakarta.json.JsonWriter;
 import jakarta.json.JsonWriterFactory;
 import jakarta.json.stream.JsonGenerator;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -23,8 +25,16 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import com.github.difflib.DiffUtils;
@@ -129,10 +139,10 @@ public class DCATAPExporterTest {
         String outputLang = exporter.getOutputLang();
         if (outputLang.isEmpty() || outputLang.equals("RDF/XML")) {
             assertEquals("application/xml", exporter.getMediaType());
-        } else if (outputLang.equals("JSON_LD")) {
-            assertEquals("application/json", exporter.getMediaType());
+        } else if (outputLang.equals("JSON-LD")) {
+            assertEquals("application/ld+json", exporter.getMediaType());
         } else if (outputLang.equals("TURTLE")) {
-            assertEquals("text/plain", exporter.getMediaType());
+            assertEquals("text/turtle", exporter.getMediaType());
         } else {
             fail("Unexpected output language: " + outputLang);
         }
@@ -202,6 +212,105 @@ public class DCATAPExporterTest {
         }
     }
     
+    @Test
+    public void testExportDatasetStreaming() throws Exception {
+        // streaming output must have the same triples as the model based output
+        Model expected = exporter.createRDFModelFromDatasetJson(dataProvider.getDatasetJson());
+        for (String[] lang : new String[][] {{"", "RDF/XML"}, {"RDF/XML", "RDF/XML"}, {"TURTLE", "TURTLE"}, {"JSON-LD", "JSON-LD"}}) {
+            DCATAPExporter streamingExporter = new DCATAPExporter();
+            streamingExporter.setStreaming(true);
+            streamingExporter.setOutputLang(lang[0]);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            streamingExporter.exportDataset(dataProvider, out);
+
+            Model actual = ModelFactory.createDefaultModel();
+            actual.read(new ByteArrayInputStream(out.toByteArray()), null, lang[1]);
+            assertTrue(expected.isIsomorphicWith(actual), "Streaming output differs for: " + lang[1]);
+        }
+    }
+
+    @Test
+    public void testExportDatasetFromJsonStream() throws Exception {
+        Model expected = exporter.createRDFModelFromDatasetJson(dataProvider.getDatasetJson());
+        DCATAPExporter streamingExporter = new DCATAPExporter();
+        streamingExporter.setStreaming(true);
+        streamingExporter.setOutputLang("TURTLE");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = Files.newInputStream(Paths.get(TestDatasets.CARS))) {
+            streamingExporter.exportDataset(in, out);
+        }
+
+        Model actual = ModelFactory.createDefaultModel();
+        actual.read(new ByteArrayInputStream(out.toByteArray()), null, "TURTLE");
+        assertTrue(expected.isIsomorphicWith(actual));
+    }
+
+    @Test
+    public void testExportDatasetNTriplesGzip() throws Exception {
+        Model expected = exporter.createRDFModelFromDatasetJson(dataProvider.getDatasetJson());
+        ExportConfig config = ExportConfig.DEFAULT.withFormat(ExportFormat.NTRIPLES).withGzip(true);
+        assertEquals("gzip", config.getContentEncoding());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.exportDataset(dataProvider, out, config);
+
+        byte[] ntriples;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ntriples = in.readAllBytes();
+        }
+        for (String line : new String(ntriples, StandardCharsets.UTF_8).split("\n")) {
+            assertTrue(line.endsWith(" ."), "Not a triple: " + line);
+        }
+        assertTrue(expected.isIsomorphicWith(readModel(ntriples, ExportFormat.NTRIPLES)));
+    }
+
+    @Test
+    public void testExportDatasetNQuads() throws Exception {
+        Model expected = exporter.createRDFModelFromDatasetJson(dataProvider.getDatasetJson());
+        ExportConfig config = ExportConfig.DEFAULT.withFormat(ExportFormat.NQUADS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.exportDataset(dataProvider, out, config);
+        assertTrue(expected.isIsomorphicWith(readModel(out.toByteArray(), ExportFormat.NQUADS)));
+
+        // from the JSON stream the files come before the dataset properties
+        out = new ByteArrayOutputStream();
+        try (InputStream in = Files.newInputStream(Paths.get(TestDatasets.CARS))) {
+            exporter.exportDataset(in, out, config);
+        }
+        assertTrue(expected.isIsomorphicWith(readModel(out.toByteArray(), ExportFormat.NQUADS)));
+    }
+
+    @Test
+    public void testExportDatasetBinary() throws Exception {
+        Model expected = exporter.createRDFModelFromDatasetJson(dataProvider.getDatasetJson());
+        for (String[] lang : new String[][] {
+                {"RDF-THRIFT", "application/rdf+thrift"}, {"RDF-PROTO", "application/rdf+protobuf"}}) {
+            DCATAPExporter binaryExporter = new DCATAPExporter();
+            binaryExporter.setOutputLang(lang[0]);
+            assertEquals(lang[1], binaryExporter.getMediaType());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            binaryExporter.exportDataset(dataProvider, out);
+
+            Model actual = readModel(out.toByteArray(), binaryExporter.getConfig().getFormat());
+            assertTrue(expected.isIsomorphicWith(actual), "Binary output differs for: " + lang[0]);
+        }
+    }
+
+    /** Read the export back, for N-Quads all triples must be in the graph of the dataset. */
+    static Model readModel(byte[] exported, ExportFormat format) {
+        if (format == ExportFormat.NQUADS) {
+            Dataset dataset = DatasetFactory.create();
+            RDFDataMgr.read(dataset, new ByteArrayInputStream(exported), Lang.NQUADS);
+            assertTrue(dataset.getDefaultModel().isEmpty());
+            Iterator<String> names = dataset.listNames();
+            Model model = dataset.getNamedModel(names.next());
+            assertFalse(names.hasNext());
+            return model;
+        }
+        Model model = ModelFactory.createDefaultModel();
+        model.read(new ByteArrayInputStream(exported), null, format.getOutputLang());
+        return model;
+    }
+
     private void writeFile(String actual, String name) throws IOException {
         Path dir = Files.createDirectories(Paths.get("src/test/resources/" + name + "/out"));
         // Note that we have XML as a default for the DCAT-AP exporter, but at some point JSON_LD may be added
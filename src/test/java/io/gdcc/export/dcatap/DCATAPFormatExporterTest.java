@@ -0,0 +1,64 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.gdcc.spi.export.Exporter;
+import jakarta.json.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Locale;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.jupiter.api.Test;
+
+public class DCATAPFormatExporterTest {
+
+    private static Model export(Exporter exporter, JsonObject datasetJson, Lang lang) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.exportDataset(TestDatasets.provider(datasetJson), out);
+        Model model = ModelFactory.createDefaultModel();
+        RDFDataMgr.read(model, new ByteArrayInputStream(out.toByteArray()), lang);
+        return model;
+    }
+
+    @Test
+    public void testFormats() {
+        DCATAPTurtleExporter turtle = new DCATAPTurtleExporter();
+        assertEquals("dcat_ap_ttl", turtle.getFormatName());
+        assertEquals("text/turtle", turtle.getMediaType());
+        assertFalse(turtle.isHarvestable());
+        assertEquals("DCAT-AP (Turtle)", turtle.getDisplayName(Locale.ENGLISH));
+        DCATAPJsonLdExporter jsonLd = new DCATAPJsonLdExporter();
+        assertEquals("dcat_ap_jsonld", jsonLd.getFormatName());
+        assertEquals("application/ld+json", jsonLd.getMediaType());
+        assertEquals(ExportFormat.JSON_LD, jsonLd.getConfig().getFormat());
+    }
+
+    @Test
+    public void testSameGraphInAllFormats() throws Exception {
+        JsonObject datasetJson = Warmup.readSampleDataset();
+        Model rdfXml = export(new DCATAPExporter(), datasetJson, Lang.RDFXML);
+        assertTrue(rdfXml.isIsomorphicWith(export(new DCATAPTurtleExporter(), datasetJson, Lang.TURTLE)));
+        assertTrue(rdfXml.isIsomorphicWith(export(new DCATAPJsonLdExporter(), datasetJson, Lang.JSONLD)));
+    }
+
+    @Test
+    public void testMappedOnceForAllFormats() throws Exception {
+        JsonObject datasetJson = Warmup.readSampleDataset();
+        MappedGraphCache cache = new MappedGraphCache(60, 16);
+        DCATAPExporter exporter = new DCATAPExporter();
+        exporter.setExportCache(null);
+        exporter.setGraphCache(cache);
+        exporter.exportDataset(TestDatasets.provider(datasetJson), new ByteArrayOutputStream(),
+                ExportConfig.DEFAULT);
+        exporter.exportDataset(TestDatasets.provider(datasetJson), new ByteArrayOutputStream(),
+                ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE));
+        assertEquals(1, cache.size());
+        Model shared = cache.get(DatasetFingerprint.ofVersion(datasetJson, ExportConfig.DEFAULT), () -> {
+            throw new AssertionError("should not be mapped again");
+        });
+        assertTrue(shared.size() > 0);
+    }
+}
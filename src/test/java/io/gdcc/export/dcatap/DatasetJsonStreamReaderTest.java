@@ -0,0 +1,70 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class DatasetJsonStreamReaderTest {
+
+    static JsonObject datasetJson;
+
+    @BeforeAll
+    public static void setUp() {
+        datasetJson = TestDatasets.cars();
+    }
+
+    @Test
+    public void testRead() {
+        DatasetJsonStreamReader reader = new DatasetJsonStreamReader();
+        List<JsonObject> files = new ArrayList<>();
+        JsonObject result = reader.read(new StringReader(datasetJson.toString()), files::add);
+
+        JsonObject datasetVersion = datasetJson.getJsonObject("datasetVersion");
+        assertEquals(datasetVersion.getJsonArray("files").getValuesAs(JsonObject.class), files);
+        assertTrue(result.getJsonObject("datasetVersion").getJsonArray("files").isEmpty());
+        assertEquals(datasetJson.getString("persistentUrl"), result.getString("persistentUrl"));
+        assertEquals(datasetVersion.getJsonObject("metadataBlocks"),
+                result.getJsonObject("datasetVersion").getJsonObject("metadataBlocks"));
+        assertTrue(reader.isLicenseKnown());
+    }
+
+    @Test
+    public void testMapSameAsTree() {
+        DCATAPExporter exporter = new DCATAPExporter();
+        Model expected = exporter.createRDFModelFromDatasetJson(datasetJson);
+        Model actual = ModelFactory.createDefaultModel();
+        exporter.mapDatasetJson(actual, new StringReader(datasetJson.toString()), exporter.getConfig());
+        assertTrue(expected.isIsomorphicWith(actual));
+    }
+
+    @Test
+    public void testMapFilesBeforeLicense() {
+        // files first, so they have to wait for the license
+        JsonObject datasetVersion = datasetJson.getJsonObject("datasetVersion");
+        JsonObjectBuilder reordered = Json.createObjectBuilder()
+                .add("files", datasetVersion.getJsonArray("files"));
+        datasetVersion.forEach((key, value) -> {
+            if (!key.equals("files")) {
+                reordered.add(key, value);
+            }
+        });
+        JsonObject reorderedJson = Json.createObjectBuilder(datasetJson)
+                .add("datasetVersion", reordered)
+                .build();
+
+        DCATAPExporter exporter = new DCATAPExporter();
+        Model expected = exporter.createRDFModelFromDatasetJson(datasetJson);
+        Model actual = ModelFactory.createDefaultModel();
+        exporter.mapDatasetJson(actual, new StringReader(reorderedJson.toString()), exporter.getConfig());
+        assertTrue(expected.isIsomorphicWith(actual));
+    }
+}
@@ -0,0 +1,165 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Properties;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ExportCacheTest {
+
+    static JsonObject datasetJson;
+
+    @BeforeAll
+    public static void setUp() {
+        datasetJson = TestDatasets.cars();
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        ExportCache cache = new ExportCache(1000);
+        assertNull(cache.get("a"));
+        cache.put("a", new byte[] {1, 2, 3});
+        assertArrayEquals(new byte[] {1, 2, 3}, cache.get("a"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        ExportCache cache = new ExportCache(1000);
+        cache.put("a", new byte[200]);
+        cache.put("b", new byte[200]);
+        cache.put("c", new byte[200]);
+        cache.get("a"); // now b is the least recently used
+        cache.put("d", new byte[200]);
+        cache.put("e", new byte[200]);
+        assertEquals(1000, cache.getSize());
+        cache.put("f", new byte[200]);
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertEquals(1, cache.getEvictions());
+        // too large for the cache
+        cache.put("g", new byte[251]);
+        assertNull(cache.get("g"));
+    }
+
+    @Test
+    public void testDiskTierSurvivesRestart(@TempDir Path dir) {
+        ExportCache cache = new ExportCache(1000, dir, 10000);
+        cache.put("a", new byte[] {4, 5, 6});
+
+        ExportCache restarted = new ExportCache(1000, dir, 10000);
+        assertArrayEquals(new byte[] {4, 5, 6}, restarted.get("a"));
+        assertEquals(1, restarted.getDiskHits());
+        assertArrayEquals(new byte[] {4, 5, 6}, restarted.get("a"));
+        assertEquals(1, restarted.getHits());
+    }
+
+    @Test
+    public void testDiskTierBounded(@TempDir Path dir) {
+        ExportCache cache = new ExportCache(1000, dir, 500);
+        cache.put("a", new byte[200]);
+        cache.put("b", new byte[200]);
+        cache.put("c", new byte[200]);
+
+        ExportCache restarted = new ExportCache(1000, dir, 500);
+        int onDisk = 0;
+        for (String key : new String[] {"a", "b", "c"}) {
+            if (restarted.get(key) != null) {
+                onDisk++;
+            }
+        }
+        assertEquals(2, onDisk);
+    }
+
+    @Test
+    public void testDiskTierEvictsLeastRecentlyUsed(@TempDir Path dir) throws IOException {
+        ExportCache cache = new ExportCache(1000, dir, 500);
+        cache.put("a", new byte[200]);
+        cache.put("b", new byte[200]);
+        // a was written first, but used last
+        FileTime old = FileTime.from(Instant.now().minusSeconds(60));
+        Files.setLastModifiedTime(dir.resolve("a.export"), old);
+        Files.setLastModifiedTime(dir.resolve("b.export"), old);
+        assertNotNull(new ExportCache(1000, dir, 500).get("a"));
+        cache.put("c", new byte[200]);
+
+        ExportCache restarted = new ExportCache(1000, dir, 500);
+        assertNotNull(restarted.get("a"));
+        assertNull(restarted.get("b"));
+        assertNotNull(restarted.get("c"));
+    }
+
+    @Test
+    public void testFromProperties(@TempDir Path dir) throws IOException {
+        Properties properties = new Properties();
+        assertNull(ExportCache.fromProperties(properties));
+        // an invalid maximum disables the cache, instead of failing the exporter
+        properties.setProperty(ExportCache.MAX_BYTES_PROPERTY, "64MB");
+        assertNull(ExportCache.fromProperties(properties));
+
+        properties.setProperty(ExportCache.MAX_BYTES_PROPERTY, "1000");
+        properties.setProperty(ExportCache.DIRECTORY_PROPERTY, dir.toString());
+        ExportCache cache = ExportCache.fromProperties(properties);
+        cache.put("a", new byte[] {1});
+        assertArrayEquals(new byte[] {1}, new ExportCache(1000, dir, 10000).get("a"));
+
+        // a directory that cannot be created only drops the disk tier
+        Path file = Files.createFile(dir.resolve("not-a-directory"));
+        properties.setProperty(ExportCache.DIRECTORY_PROPERTY, file.resolve("cache").toString());
+        cache = ExportCache.fromProperties(properties);
+        assertNotNull(cache);
+        cache.put("b", new byte[] {2});
+        assertArrayEquals(new byte[] {2}, cache.get("b"));
+    }
+
+    @Test
+    public void testFingerprint() {
+        String rdfXml = DatasetFingerprint.of(datasetJson, ExportConfig.DEFAULT);
+        assertEquals(rdfXml, DatasetFingerprint.of(datasetJson, ExportConfig.DEFAULT));
+        assertNotEquals(rdfXml, DatasetFingerprint.of(datasetJson, ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE)));
+        JsonObject changed = Json.createObjectBuilder(datasetJson)
+                .add("datasetVersion", Json.createObjectBuilder(datasetJson.getJsonObject("datasetVersion"))
+                        .add("lastUpdateTime", "2025-01-01T00:00:00Z"))
+                .build();
+        assertNotEquals(rdfXml, DatasetFingerprint.of(changed, ExportConfig.DEFAULT));
+    }
+
+    @Test
+    public void testFingerprintOfMappingVersion() {
+        // another version of the exporter must not get the exports of this one from the cache
+        String other = DatasetFingerprint.MAPPING_VERSION + "-other";
+        assertNotEquals(DatasetFingerprint.of(datasetJson, ExportConfig.DEFAULT),
+                DatasetFingerprint.of(datasetJson, ExportConfig.DEFAULT, other));
+        assertNotEquals(DatasetFingerprint.ofVersion(datasetJson, ExportConfig.DEFAULT),
+                DatasetFingerprint.ofVersion(datasetJson, ExportConfig.DEFAULT, other));
+        assertEquals(DatasetFingerprint.of(datasetJson, ExportConfig.DEFAULT),
+                DatasetFingerprint.of(datasetJson, ExportConfig.DEFAULT, DatasetFingerprint.MAPPING_VERSION));
+    }
+
+    @Test
+    public void testExporterUsesCache() throws Exception {
+        DCATAPExporter exporter = new DCATAPExporter();
+        ExportCache cache = new ExportCache(1024 * 1024);
+        exporter.setExportCache(cache);
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        exporter.exportDataset(TestDatasets.provider(datasetJson), first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        exporter.exportDataset(TestDatasets.provider(datasetJson), second);
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertArrayEquals(first.toByteArray(), second.toByteArray());
+    }
+}
@@ -0,0 +1,105 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.json.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Statement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ExportConfigTest {
+    private static final String BASE_URL = "https://demo.dataverse.org/api/access/datafile/";
+
+    @Test
+    public void testDefaults() {
+        assertEquals(ExportConfig.DEFAULT.toString(), ExportConfig.load(new Properties()).toString());
+    }
+
+    @Test
+    public void testLoadFileAndOverride(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("dcat-ap.properties");
+        Files.writeString(file, ExportConfig.FILE_ACCESS_BASE_URL_PROPERTY + "=https://demo.dataverse.org/api/access/datafile\n"
+                + ExportConfig.METADATA_LANGUAGE_PROPERTY + "=nl\n"
+                + ExportConfig.PARALLEL_THRESHOLD_PROPERTY + "=500\n");
+        Properties properties = new Properties();
+        properties.setProperty(ExportConfig.CONFIG_FILE_PROPERTY, file.toString());
+        properties.setProperty(ExportConfig.METADATA_LANGUAGE_PROPERTY, "de");
+        ExportConfig config = ExportConfig.load(properties);
+        assertEquals(BASE_URL, config.getFileAccessBaseUrl());
+        assertEquals("de", config.getMetadataLanguage());
+        assertEquals(500, config.getParallelThreshold());
+        assertFalse(config.isStreaming());
+    }
+
+    @Test
+    public void testNoPagingForTheInstallation() {
+        // the Dataverse exports must have all distributions, paging is only per call
+        Properties properties = new Properties();
+        properties.setProperty(ExportConfig.PAGE_SIZE_PROPERTY, "10");
+        assertFalse(ExportConfig.load(properties).isPaged());
+    }
+
+    @Test
+    public void testMissingFile() {
+        Properties properties = new Properties();
+        properties.setProperty(ExportConfig.CONFIG_FILE_PROPERTY, "/does/not/exist.properties");
+        assertEquals(ExportConfig.DEFAULT.toString(), ExportConfig.load(properties).toString());
+    }
+
+    private static Model export(DCATAPExporter exporter, JsonObject datasetJson, ExportConfig config) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.exportDataset(TestDatasets.provider(datasetJson), out, config);
+        Model model = ModelFactory.createDefaultModel();
+        model.read(new ByteArrayInputStream(out.toByteArray()), null, config.getFormat().getOutputLang());
+        return model;
+    }
+
+    @Test
+    public void testConcurrentConfigurations() throws Exception {
+        JsonObject datasetJson = Warmup.readSampleDataset();
+        DCATAPExporter exporter = new DCATAPExporter();
+        exporter.setExportCache(null);
+        ExportConfig demo = ExportConfig.DEFAULT.withFileAccessBaseUrl(BASE_URL).withMetadataLanguage("nl");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Model>> defaults = new ArrayList<>();
+            List<Future<Model>> demos = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                ExportFormat format = i % 2 == 0 ? ExportFormat.TURTLE : ExportFormat.RDF_XML;
+                defaults.add(executor.submit(() -> export(exporter, datasetJson, ExportConfig.DEFAULT.withFormat(format))));
+                demos.add(executor.submit(() -> export(exporter, datasetJson, demo.withFormat(format))));
+            }
+            for (Future<Model> model : defaults) {
+                assertMapped(model.get(), ExportConfig.DEFAULT_FILE_ACCESS_BASE_URL, "en");
+            }
+            for (Future<Model> model : demos) {
+                assertMapped(model.get(), BASE_URL, "nl");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertMapped(Model model, String baseUrl, String lang) {
+        List<Statement> distributions = model.listStatements(null, Vocab.DCAT.distribution, (String) null).toList();
+        assertEquals(3, distributions.size());
+        for (Statement distribution : distributions) {
+            assertTrue(distribution.getResource().getURI().startsWith(baseUrl), distribution.toString());
+        }
+        assertEquals(lang, model.listStatements(null, Vocab.DCT.title, (String) null)
+                .filterKeep(statement -> statement.getObject().asLiteral().getLanguage().length() > 0)
+                .next().getLanguage());
+    }
+}
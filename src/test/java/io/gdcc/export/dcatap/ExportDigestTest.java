@@ -0,0 +1,95 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ExportDigestTest {
+
+    static JsonObject datasetJson;
+
+    @BeforeAll
+    public static void setUp() {
+        datasetJson = TestDatasets.cars();
+    }
+
+    @Test
+    public void testDigestOfTheOutput() throws Exception {
+        for (ExportConfig config : new ExportConfig[] {
+                ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE),
+                ExportConfig.DEFAULT.withFormat(ExportFormat.NTRIPLES).withGzip(true)}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ExportDigest digest = new DCATAPExporter()
+                    .exportDatasetWithDigest(TestDatasets.provider(datasetJson), out, config);
+
+            byte[] expected = MessageDigest.getInstance("SHA-256").digest(out.toByteArray());
+            assertEquals(HexFormat.of().formatHex(expected), digest.getDigest());
+            assertTrue(digest.getReprDigest().startsWith("sha-256=:"));
+        }
+    }
+
+    @Test
+    public void testETagWithoutExport() throws Exception {
+        DCATAPExporter exporter = new DCATAPExporter();
+        ExportConfig config = ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE);
+        ExportDigest digest = exporter.exportDatasetWithDigest(
+                TestDatasets.provider(datasetJson), new ByteArrayOutputStream(), config);
+        assertEquals(digest.getETag(), exporter.getETag(TestDatasets.provider(datasetJson), config));
+
+        // another version, format or encoding is another ETag
+        JsonObject updated = Json.createObjectBuilder(datasetJson)
+                .add("datasetVersion", Json.createObjectBuilder(datasetJson.getJsonObject("datasetVersion"))
+                        .add("lastUpdateTime", "2025-01-01T00:00:00Z"))
+                .build();
+        assertNotEquals(digest.getETag(), exporter.getETag(TestDatasets.provider(updated), config));
+        assertNotEquals(digest.getETag(), exporter.getETag(TestDatasets.provider(datasetJson), 
+                config.withFormat(ExportFormat.RDF_XML)));
+        assertNotEquals(digest.getETag(), exporter.getETag(TestDatasets.provider(datasetJson), 
+                config.withGzip(true)));
+    }
+
+    @Test
+    public void testETagOfMappingVersion() throws Exception {
+        // after an upgrade that changes the mapping, the old ETag must not match anymore
+        ExportConfig config = ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE);
+        String etag = new DCATAPExporter().getETag(TestDatasets.provider(datasetJson), config);
+        String previous = ExportDigest.etag(
+                DatasetFingerprint.of(datasetJson, config, DatasetFingerprint.MAPPING_VERSION + "-previous"), config);
+        assertFalse(ExportDigest.matches(previous, etag));
+        assertEquals(ExportDigest.etag(DatasetFingerprint.of(datasetJson, config), config), etag);
+    }
+
+    @Test
+    public void testStrongETagForCanonicalOutput() throws Exception {
+        DCATAPExporter exporter = new DCATAPExporter();
+        ExportConfig config = ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE);
+        assertTrue(exporter.getETag(TestDatasets.provider(datasetJson), config).startsWith("W/\""));
+        String canonical = exporter.getETag(TestDatasets.provider(datasetJson), config.withCanonical(true));
+        assertTrue(canonical.startsWith("\""));
+
+        // and the same bytes every time
+        ExportDigest first = exporter.exportDatasetWithDigest(
+                TestDatasets.provider(datasetJson), new ByteArrayOutputStream(), config.withCanonical(true));
+        ExportDigest second = new DCATAPExporter().exportDatasetWithDigest(
+                TestDatasets.provider(datasetJson), new ByteArrayOutputStream(), config.withCanonical(true));
+        assertEquals(canonical, first.getETag());
+        assertEquals(first.getDigest(), second.getDigest());
+    }
+
+    @Test
+    public void testMatches() {
+        String etag = "W/\"abc\"";
+        assertTrue(ExportDigest.matches("W/\"abc\"", etag));
+        assertTrue(ExportDigest.matches("\"abc\"", etag));
+        assertTrue(ExportDigest.matches("\"xyz\", W/\"abc\"", etag));
+        assertTrue(ExportDigest.matches("*", etag));
+        assertFalse(ExportDigest.matches("\"xyz\"", etag));
+        assertFalse(ExportDigest.matches(null, etag));
+    }
+}
@@ -0,0 +1,55 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ExportEventTest {
+
+    @Test
+    public void testEventsOfAnExport(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("export.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ExportEvent.class);
+            recording.enable(ExportPhaseEvent.class);
+            recording.enable(FileDistributionEvent.class);
+            recording.start();
+            DCATAPExporter exporter = new DCATAPExporter();
+            exporter.setGraphCache(null); // map it, even when another test did that already
+            exporter.exportDataset(TestDatasets.provider(Warmup.readSampleDataset()),
+                    new ByteArrayOutputStream(), ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE));
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        List<RecordedEvent> exports = ofType(events, "io.gdcc.export.dcatap.Export");
+        assertEquals(1, exports.size());
+        RecordedEvent export = exports.get(0);
+        assertEquals("https://doi.org/10.5072/FK2/SAMPLE", export.getString("persistentUrl"));
+        assertEquals("TURTLE", export.getString("outputLang"));
+        assertEquals(3, export.getLong("files"));
+        assertTrue(export.getLong("triples") > 0);
+        assertTrue(export.getLong("bytes") > 0);
+        assertNull(export.getString("error"));
+
+        assertEquals(List.of("fetch", "map", "serialize", "flush"),
+                ofType(events, "io.gdcc.export.dcatap.ExportPhase").stream()
+                        .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                        .map(e -> e.getString("phase"))
+                        .collect(Collectors.toList()));
+        assertEquals(3, ofType(events, "io.gdcc.export.dcatap.FileDistribution").size());
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,121 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.gdcc.spi.export.ExportException;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+public class ExportMetricsTest {
+
+    @Test
+    public void testHistogramPercentiles() {
+        Histogram histogram = new Histogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot(1000);
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500.5, snapshot.getMean(), 0.001);
+        assertEquals(500, snapshot.getP50(), 500 * 0.125);
+        assertEquals(990, snapshot.getP99(), 990 * 0.125);
+        assertEquals(1000, snapshot.getMax(), 0.001);
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long value : new long[] {0, 1, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE}) {
+            int bucket = Histogram.bucket(value);
+            assertTrue(Histogram.upperBound(bucket) >= value);
+            assertTrue(bucket == 0 || Histogram.upperBound(bucket - 1) < value);
+        }
+    }
+
+    @Test
+    public void testPhaseMustBeRunning() {
+        ExportMetrics.Recording recording = new ExportMetrics(Long.MAX_VALUE).start(ExportConfig.DEFAULT);
+        recording.begin(ExportMetrics.Phase.MAP);
+        assertThrows(IllegalStateException.class, () -> recording.end(ExportMetrics.Phase.SERIALIZE));
+        recording.begin(ExportMetrics.Phase.SERIALIZE);
+        recording.end(ExportMetrics.Phase.SERIALIZE);
+        assertThrows(IllegalStateException.class, () -> recording.end(ExportMetrics.Phase.SERIALIZE));
+        recording.finish();
+    }
+
+    @Test
+    public void testExportIsRecorded() throws Exception {
+        ExportMetrics metrics = ExportMetrics.get();
+        long exports = metrics.getExportCount();
+        long fetches = metrics.getFetchLatency().getCount();
+        long files = metrics.getFilesPerExport().getCount();
+        new DCATAPExporter().exportDataset(
+                TestDatasets.provider(Warmup.readSampleDataset()),
+                new ByteArrayOutputStream(), ExportConfig.DEFAULT);
+        assertEquals(exports + 1, metrics.getExportCount());
+        assertEquals(fetches + 1, metrics.getFetchLatency().getCount());
+        assertEquals(files + 1, metrics.getFilesPerExport().getCount());
+        assertTrue(metrics.getBytesPerExport().getMax() > 0);
+        assertTrue(metrics.getTriplesPerExport().getMax() > 0);
+        assertNull(ExportMetrics.current());
+
+        // also available over JMX
+        Object count = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(ExportMetrics.OBJECT_NAME), "ExportCount");
+        assertEquals(metrics.getExportCount(), count);
+    }
+
+    @Test
+    public void testErrorsByType() {
+        ExportMetrics metrics = ExportMetrics.get();
+        long errors = metrics.getErrorCountsByType().getOrDefault("NullPointerException", 0L);
+        JsonObject broken = Json.createObjectBuilder().add("persistentUrl", "https://doi.org/10.5072/FK2/BROKEN").build();
+        assertThrows(ExportException.class, () -> new DCATAPExporter().exportDataset(
+                TestDatasets.provider(broken), new ByteArrayOutputStream(), ExportConfig.DEFAULT));
+        assertEquals(errors + 1, metrics.getErrorCountsByType().get("NullPointerException"));
+        assertNull(ExportMetrics.current());
+    }
+
+    @Test
+    public void testSlowExportIsLogged() throws InterruptedException {
+        List<String> messages = new ArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger(ExportMetrics.class.getCanonicalName());
+        logger.addHandler(handler);
+        try {
+            ExportMetrics metrics = new ExportMetrics(1);
+            ExportMetrics.Recording recording = metrics.start(ExportConfig.DEFAULT);
+            recording.setDataset("https://doi.org/10.5072/FK2/SLOW");
+            recording.begin(ExportMetrics.Phase.SERIALIZE);
+            Thread.sleep(5);
+            recording.end(ExportMetrics.Phase.SERIALIZE);
+            recording.finish();
+            assertEquals(1, messages.size());
+            assertTrue(messages.get(0).contains("https://doi.org/10.5072/FK2/SLOW"));
+            assertTrue(messages.get(0).contains("serialize"));
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.json.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.jupiter.api.Test;
+
+public class ExportPlannerTest {
+    private final JsonObject datasetJson = Warmup.readSampleDataset();
+
+    @Test
+    public void testSmallDatasetInMemory() {
+        ExportPlanner planner = new ExportPlanner(Long.MAX_VALUE);
+        ExportPlanner.Plan plan = planner.plan(datasetJson, ExportConfig.DEFAULT, true);
+        assertEquals(ExportPlanner.Strategy.IN_MEMORY, plan.getStrategy());
+    }
+
+    @Test
+    public void testOverBudget() {
+        ExportPlanner planner = new ExportPlanner(0);
+        assertEquals(ExportPlanner.Strategy.STREAMING, planner.plan(datasetJson, ExportConfig.DEFAULT, true).getStrategy());
+        ExportPlanner.Plan plan = planner.plan(datasetJson, ExportConfig.DEFAULT.withFormat(ExportFormat.JSON_LD), false);
+        assertEquals(ExportPlanner.Strategy.DISK, plan.getStrategy());
+        assertTrue(plan.getReason().contains("3 files"), plan.getReason());
+    }
+
+    @Test
+    public void testStreamingConfigured() {
+        ExportPlanner planner = new ExportPlanner(Long.MAX_VALUE);
+        ExportConfig config = ExportConfig.DEFAULT.withStreaming(true);
+        assertEquals(ExportPlanner.Strategy.STREAMING, planner.plan(datasetJson, config, true).getStrategy());
+    }
+
+    @Test
+    public void testEstimate() {
+        long fieldValues = ExportPlanner.countFieldValues(datasetJson.getJsonObject("datasetVersion"));
+        assertTrue(fieldValues > 0);
+        assertTrue(ExportPlanner.estimateBytes(10_000, fieldValues) > ExportPlanner.estimateBytes(3, fieldValues));
+    }
+
+    private Model exportJsonLd(DCATAPExporter exporter) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.writeDatasetJson(datasetJson, out, ExportConfig.DEFAULT.withFormat(ExportFormat.JSON_LD));
+        Model model = ModelFactory.createDefaultModel();
+        RDFDataMgr.read(model, new ByteArrayInputStream(out.toByteArray()), Lang.JSONLD);
+        return model;
+    }
+
+    @Test
+    public void testDiskExportSameGraph() throws IOException {
+        DCATAPExporter exporter = new DCATAPExporter();
+        exporter.setGraphCache(null);
+        Model inMemory = exportJsonLd(exporter);
+
+        exporter.setPlanner(new ExportPlanner(0));
+        long before = countTempStores();
+        Model onDisk = exportJsonLd(exporter);
+        assertTrue(inMemory.isIsomorphicWith(onDisk));
+        assertEquals(before, countTempStores(), "temporary store not removed");
+    }
+
+    private static long countTempStores() throws IOException {
+        try (Stream<Path> paths = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return paths.filter(path -> path.getFileName().toString().startsWith("dcat-ap-export")).count();
+        }
+    }
+}
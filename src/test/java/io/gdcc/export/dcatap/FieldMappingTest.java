@@ -0,0 +1,140 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import java.util.List;
+import java.util.Map;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class FieldMappingTest {
+
+    static JsonObject datasetJson;
+
+    @BeforeAll
+    public static void setUp() {
+        datasetJson = TestDatasets.cars();
+    }
+
+    // a compound field, every value is a map of sub field typeName to value
+    static JsonObject compound(String typeName, List<Map<String, String>> values) {
+        JsonArrayBuilder array = Json.createArrayBuilder();
+        for (Map<String, String> value : values) {
+            JsonObjectBuilder object = Json.createObjectBuilder();
+            value.forEach((subTypeName, subValue) -> object.add(subTypeName, Json.createObjectBuilder()
+                    .add("typeName", subTypeName)
+                    .add("multiple", false)
+                    .add("typeClass", "primitive")
+                    .add("value", subValue)));
+            array.add(object);
+        }
+        return Json.createObjectBuilder()
+                .add("typeName", typeName)
+                .add("multiple", true)
+                .add("typeClass", "compound")
+                .add("value", array)
+                .build();
+    }
+
+    // the cars dataset with more citation fields and a geospatial block
+    static JsonObject withMoreFields() {
+        JsonObject datasetVersion = datasetJson.getJsonObject("datasetVersion");
+        JsonObject metadataBlocks = datasetVersion.getJsonObject("metadataBlocks");
+        JsonArrayBuilder citationFields = Json.createArrayBuilder(
+                metadataBlocks.getJsonObject("citation").getJsonArray("fields"));
+        citationFields.add(compound("timePeriodCovered", List.of(
+                Map.of("timePeriodCoveredStart", "2020", "timePeriodCoveredEnd", "2021-06-30"))));
+        citationFields.add(compound("otherId", List.of(
+                Map.of("otherIdAgency", "ISBN", "otherIdValue", "978-3-16-148410-0"))));
+        citationFields.add(compound("publication", List.of(
+                Map.of("publicationCitation", "Some article", "publicationURL", "https://example.org/article"),
+                Map.of("publicationCitation", "No URL, only a citation"),
+                Map.of("publicationURL", "not a URL"))));
+        JsonArrayBuilder geospatialFields = Json.createArrayBuilder()
+                .add(compound("geographicCoverage", List.of(Map.of("country", "Netherlands", "city", "Utrecht"))))
+                .add(compound("geographicBoundingBox", List.of(Map.of(
+                        "westLongitude", "3.3", "eastLongitude", "7.2",
+                        "northLatitude", "53.5", "southLatitude", "50.7"))));
+        return Json.createObjectBuilder(datasetJson)
+                .add("datasetVersion", Json.createObjectBuilder(datasetVersion)
+                        .add("metadataBlocks", Json.createObjectBuilder(metadataBlocks)
+                                .add("citation", Json.createObjectBuilder(metadataBlocks.getJsonObject("citation"))
+                                        .add("fields", citationFields))
+                                .add("geospatial", Json.createObjectBuilder()
+                                        .add("displayName", "Geospatial Metadata")
+                                        .add("fields", geospatialFields))))
+                .build();
+    }
+
+    @Test
+    public void testCitationFields() {
+        Model model = new DCATAPExporter().createRDFModelFromDatasetJson(datasetJson);
+        Resource dataset = model.getResource(datasetJson.getString("persistentUrl"));
+        assertTrue(model.contains(dataset, Vocab.DCT.title, model.createLiteral("Cars", "en")));
+        assertEquals(1, model.listObjectsOfProperty(dataset, Vocab.DCT.description).toList().size());
+        assertEquals(1, model.listObjectsOfProperty(dataset, Vocab.DCAT.contactPoint).toList().size());
+        assertEquals(2, model.listObjectsOfProperty(dataset, Vocab.DCT.creator).toList().size());
+        assertEquals(3, model.listObjectsOfProperty(dataset, Vocab.DCT.language).toList().size());
+        assertEquals(3, model.listObjectsOfProperty(dataset, Vocab.DCAT.keyword).toList().size());
+    }
+
+    @Test
+    public void testMoreFields() {
+        JsonObject json = withMoreFields();
+        Model model = new DCATAPExporter().createRDFModelFromDatasetJson(json);
+        Resource dataset = model.getResource(json.getString("persistentUrl"));
+
+        Resource period = model.getProperty(dataset, Vocab.DCT.temporal).getResource();
+        assertTrue(model.contains(period, Vocab.RDF.type, Vocab.DCT.PeriodOfTime));
+        assertEquals(XSDDatatype.XSDgYear.getURI(), period.getProperty(Vocab.DCAT.startDate).getLiteral().getDatatypeURI());
+        assertEquals(XSDDatatype.XSDdate.getURI(), period.getProperty(Vocab.DCAT.endDate).getLiteral().getDatatypeURI());
+
+        Resource identifier = model.getProperty(dataset, Vocab.ADMS.identifier).getResource();
+        assertEquals("978-3-16-148410-0", identifier.getProperty(Vocab.SKOS.notation).getString());
+
+        // only the publication with a valid URL
+        List<RDFNode> references = model.listObjectsOfProperty(dataset, Vocab.DCT.isReferencedBy).toList();
+        assertEquals(List.of(model.createResource("https://example.org/article")), references);
+
+        List<RDFNode> locations = model.listObjectsOfProperty(dataset, Vocab.DCT.spatial).toList();
+        assertEquals(2, locations.size());
+        assertTrue(model.contains(null, Vocab.RDFS.label, model.createLiteral("Utrecht, Netherlands", "en")));
+        Literal bbox = model.listObjectsOfProperty(Vocab.DCAT.bbox).next().asLiteral();
+        assertEquals("POLYGON((3.3 50.7, 7.2 50.7, 7.2 53.5, 3.3 53.5, 3.3 50.7))", bbox.getLexicalForm());
+        assertEquals(Vocab.WKT_LITERAL, bbox.getDatatypeURI());
+    }
+
+    @Test
+    public void testDefaultsForMandatoryFields() {
+        JsonObject datasetVersion = datasetJson.getJsonObject("datasetVersion");
+        JsonObject json = Json.createObjectBuilder(datasetJson)
+                .add("datasetVersion", Json.createObjectBuilder(datasetVersion)
+                        .add("metadataBlocks", Json.createObjectBuilder()))
+                .build();
+        Model model = new DCATAPExporter().createRDFModelFromDatasetJson(json);
+        Resource dataset = model.getResource(json.getString("persistentUrl"));
+        assertTrue(model.contains(dataset, Vocab.DCT.title, model.createLiteral("no-title", "en")));
+        assertTrue(model.contains(dataset, Vocab.DCT.description, model.createLiteral("no-description", "en")));
+        assertFalse(model.contains(dataset, Vocab.DCAT.contactPoint));
+    }
+
+    @Test
+    public void testTypeClassMustMatch() {
+        Map<String, FieldMapping.Rule[]> dispatch = FieldMapping.compile(FieldMapping.DCAT_AP);
+        FieldMapping.Rule title = dispatch.get("title")[0];
+        assertTrue(title.accepts(new MetadataFieldIndex.Field("citation", "title", "primitive", false,
+                Json.createValue("Cars"))));
+        assertFalse(title.accepts(new MetadataFieldIndex.Field("citation", "title", "compound", false,
+                Json.createObjectBuilder().build())));
+        assertEquals(2, FieldMapping.DCAT_AP.stream().filter(rule -> rule.property.equals(Vocab.DCT.spatial)).count());
+    }
+}
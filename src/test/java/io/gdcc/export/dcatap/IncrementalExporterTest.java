@@ -0,0 +1,80 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.gdcc.spi.export.ExportException;
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class IncrementalExporterTest {
+
+    static JsonObject datasetJson;
+
+    @BeforeAll
+    public static void setUp() {
+        datasetJson = TestDatasets.cars();
+    }
+
+    @Test
+    public void testOnlyChangedFilesAreMapped() throws Exception {
+        DCATAPExporter exporter = new DCATAPExporter();
+        IncrementalExporter incrementalExporter = new IncrementalExporter(exporter, 10);
+        ExportConfig config = ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE);
+        JsonArray files = datasetJson.getJsonObject("datasetVersion").getJsonArray("files");
+
+        incrementalExporter.exportDataset(TestDatasets.provider(datasetJson), new ByteArrayOutputStream(), config);
+        assertEquals(files.size(), incrementalExporter.getMappedFiles());
+        assertEquals(0, incrementalExporter.getReusedFiles());
+
+        // change the description of the first file, drop the second and add a new one
+        JsonArrayBuilder newFiles = Json.createArrayBuilder();
+        JsonObject first = files.getJsonObject(0);
+        newFiles.add(Json.createObjectBuilder(first)
+                .add("dataFile", Json.createObjectBuilder(first.getJsonObject("dataFile"))
+                        .add("description", "Changed")));
+        for (int i = 2; i < files.size(); i++) {
+            newFiles.add(files.getJsonObject(i));
+        }
+        JsonObject added = files.getJsonObject(1);
+        newFiles.add(Json.createObjectBuilder(added)
+                .add("dataFile", Json.createObjectBuilder(added.getJsonObject("dataFile"))
+                        .add("id", 999)));
+        JsonObject newVersion = Json.createObjectBuilder(datasetJson)
+                .add("datasetVersion", Json.createObjectBuilder(datasetJson.getJsonObject("datasetVersion"))
+                        .add("versionMinorNumber", 1)
+                        .add("files", newFiles))
+                .build();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        incrementalExporter.exportDataset(TestDatasets.provider(newVersion), out, config);
+        assertEquals(files.size() + 2, incrementalExporter.getMappedFiles());
+        assertEquals(files.size() - 2, incrementalExporter.getReusedFiles());
+        assertEquals(1, incrementalExporter.getRemovedFiles());
+
+        // same as a complete export
+        Model expected = exporter.createRDFModelFromDatasetJson(newVersion);
+        Model actual = ModelFactory.createDefaultModel();
+        actual.read(new ByteArrayInputStream(out.toByteArray()), null, "TURTLE");
+        assertTrue(expected.isIsomorphicWith(actual));
+    }
+
+    @Test
+    public void testRecordedAndNotPaged() throws Exception {
+        IncrementalExporter incrementalExporter = new IncrementalExporter(new DCATAPExporter(), 10);
+        ExportConfig config = ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE);
+        long exports = ExportMetrics.get().getExportCount();
+        incrementalExporter.exportDataset(TestDatasets.provider(datasetJson), new ByteArrayOutputStream(), config);
+        assertTrue(ExportMetrics.get().getExportCount() > exports);
+
+        assertThrows(ExportException.class, () -> incrementalExporter.exportDataset(
+                TestDatasets.provider(datasetJson), new ByteArrayOutputStream(), config.withPaging(1, 1)));
+    }
+}
@@ -0,0 +1,38 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Resource;
+import org.junit.jupiter.api.Test;
+
+public class InternCacheTest {
+
+    @Test
+    public void testReturnsSameInstance() {
+        InternCache<String, StringBuilder> cache = new InternCache<>(10, StringBuilder::new);
+        assertSame(cache.get("a"), cache.get("a"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testBounded() {
+        InternCache<String, StringBuilder> cache = new InternCache<>(2, StringBuilder::new);
+        cache.get("a");
+        cache.get("b");
+        StringBuilder c = cache.get("c");
+        assertEquals("c", c.toString());
+        assertNotSame(c, cache.get("c")); // not stored anymore, but still created
+        assertSame(cache.get("a"), cache.get("a"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testVocabSharedValues() {
+        Resource license = Vocab.sharedResource("http://creativecommons.org/publicdomain/zero/1.0");
+        assertSame(license, Vocab.sharedResource("http://creativecommons.org/publicdomain/zero/1.0"));
+        Literal mediaType = Vocab.mediaType("text/plain");
+        assertEquals("http://www.iana.org/assignments/media-types/text/plain", mediaType.getLexicalForm());
+        assertSame(mediaType, Vocab.mediaType("text/plain"));
+    }
+}
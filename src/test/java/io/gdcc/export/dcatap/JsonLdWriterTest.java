@@ -0,0 +1,122 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.TDB2Factory;
+import org.junit.jupiter.api.Test;
+
+public class JsonLdWriterTest {
+    private final DCATAPExporter exporter = new DCATAPExporter();
+
+    private static byte[] write(Model model) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonLdWriter.write(model.getGraph(), out);
+        return out.toByteArray();
+    }
+
+    private static Model read(byte[] jsonLd) {
+        Model model = ModelFactory.createDefaultModel();
+        RDFDataMgr.read(model, new ByteArrayInputStream(jsonLd), Lang.JSONLD);
+        return model;
+    }
+
+    @Test
+    public void testSameGraph() {
+        Model model = exporter.createRDFModelFromDatasetJson(Warmup.readSampleDataset());
+        assertTrue(model.isIsomorphicWith(read(write(model))));
+    }
+
+    @Test
+    public void testFramed() {
+        Model model = exporter.createRDFModelFromDatasetJson(Warmup.readSampleDataset());
+        JsonObject document = Json.createReader(new ByteArrayInputStream(write(model))).readObject();
+        assertTrue(document.containsKey("@context"));
+        assertEquals("Dataset", document.getString("@type"));
+        assertEquals("https://doi.org/10.5072/FK2/SAMPLE", document.getString("@id"));
+        JsonArray distributions = document.getJsonArray("distribution");
+        assertEquals(3, distributions.size());
+        assertEquals("Distribution", distributions.getJsonObject(0).getString("@type"));
+        assertTrue(distributions.getJsonObject(0).containsKey("byteSize"));
+        assertTrue(document.getJsonArray("creator").getJsonObject(0).containsKey("name"));
+        assertTrue(document.getJsonObject("contactPoint").containsKey("fn"));
+    }
+
+    @Test
+    public void testValuesNotInContext() {
+        Model model = ModelFactory.createDefaultModel();
+        Resource node = model.createResource("https://example.org/node");
+        Resource other = model.createResource("https://example.org/other");
+        node.addProperty(model.createProperty("https://example.org/p"), model.createTypedLiteral(42));
+        node.addProperty(Vocab.DCT.title, other);
+        // a cycle of blank nodes, neither can be nested in the other
+        Resource a = model.createResource();
+        Resource b = model.createResource();
+        a.addProperty(Vocab.DCT.creator, b);
+        b.addProperty(Vocab.DCT.creator, a);
+        other.addProperty(Vocab.DCT.identifier, "other");
+        assertTrue(model.isIsomorphicWith(read(write(model))));
+    }
+
+    // write the model from a TDB2 store, as DiskExport does
+    private static byte[] writeIndexed(Model model) {
+        Dataset dataset = TDB2Factory.createDataset();
+        Txn.executeWrite(dataset, () -> dataset.getDefaultModel().add(model));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Txn.executeRead(dataset, () -> {
+            JsonLdWriter writer = new JsonLdWriter(JsonLdContext.dcatAp(), out, dataset.getDefaultModel().getGraph());
+            writer.writeIndexed();
+            // nothing is grouped in memory, the triples are looked up in the store
+            assertEquals(0, writer.groupedSubjects());
+        });
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testIndexedSameDocument() {
+        Model model = exporter.createRDFModelFromDatasetJson(Warmup.readSampleDataset());
+        byte[] jsonLd = writeIndexed(model);
+        assertTrue(model.isIsomorphicWith(read(jsonLd)));
+        JsonObject document = Json.createReader(new ByteArrayInputStream(jsonLd)).readObject();
+        assertEquals("Dataset", document.getString("@type"));
+        assertEquals(3, document.getJsonArray("distribution").size());
+        assertTrue(document.getJsonArray("distribution").getJsonObject(0).containsKey("checksum"));
+        assertTrue(document.getJsonObject("contactPoint").containsKey("fn"));
+    }
+
+    @Test
+    public void testIndexedCycle() {
+        Model model = ModelFactory.createDefaultModel();
+        Resource a = model.createResource();
+        Resource b = model.createResource();
+        a.addProperty(Vocab.DCT.creator, b);
+        b.addProperty(Vocab.DCT.creator, a);
+        model.createResource("https://example.org/other").addProperty(Vocab.DCT.identifier, "other");
+        byte[] jsonLd = writeIndexed(model);
+        assertTrue(model.isIsomorphicWith(read(jsonLd)));
+        // one of the cycle at the top with the other nested in it, and the other node
+        JsonObject document = Json.createReader(new ByteArrayInputStream(jsonLd)).readObject();
+        assertEquals(2, document.getJsonArray("@graph").size());
+    }
+
+    @Test
+    public void testContextParsedOnce() {
+        assertSame(JsonLdContext.dcatAp(), JsonLdContext.dcatAp());
+        JsonLdContext context = JsonLdContext.dcatAp();
+        assertEquals("dcat:Dataset", context.compact(DCATAPExporter.DCAT + "Dataset"));
+        assertEquals("Dataset", context.getClassTerm(DCATAPExporter.DCAT + "Dataset"));
+        assertEquals("@id", context.getProperty(DCATAPExporter.DCAT + "landingPage").type);
+        assertTrue(context.getProperty(DCATAPExporter.DCAT + "distribution").set);
+    }
+}
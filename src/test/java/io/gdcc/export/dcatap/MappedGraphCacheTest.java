@@ -0,0 +1,63 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.Test;
+
+public class MappedGraphCacheTest {
+    private final AtomicInteger mapped = new AtomicInteger();
+    private final AtomicLong now = new AtomicLong();
+
+    private Supplier<Model> mapper() {
+        return () -> {
+            mapped.incrementAndGet();
+            return ModelFactory.createDefaultModel();
+        };
+    }
+
+    @Test
+    public void testMapsOnce() {
+        MappedGraphCache cache = new MappedGraphCache(60, 16, now::get);
+        Model first = cache.get("v1", mapper());
+        assertSame(first, cache.get("v1", mapper()));
+        assertEquals(1, mapped.get());
+        cache.get("v2", mapper());
+        assertEquals(2, mapped.get());
+    }
+
+    @Test
+    public void testExpires() {
+        MappedGraphCache cache = new MappedGraphCache(60, 16, now::get);
+        Model first = cache.get("v1", mapper());
+        now.addAndGet(61_000_000_000L);
+        assertNotSame(first, cache.get("v1", mapper()));
+        assertEquals(2, mapped.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testBounded() {
+        MappedGraphCache cache = new MappedGraphCache(60, 1, now::get);
+        cache.get("v1", mapper());
+        cache.get("v2", mapper());
+        cache.get("v2", mapper());
+        assertEquals(3, mapped.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testFailureIsNotKept() {
+        MappedGraphCache cache = new MappedGraphCache(60, 16, now::get);
+        assertThrows(IllegalStateException.class, () -> cache.get("v1", () -> {
+            throw new IllegalStateException("mapping failed");
+        }));
+        assertEquals(0, cache.size());
+        cache.get("v1", mapper());
+        assertEquals(1, mapped.get());
+    }
+}
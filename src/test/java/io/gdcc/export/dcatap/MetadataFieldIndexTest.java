@@ -0,0 +1,51 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class MetadataFieldIndexTest {
+
+    static MetadataFieldIndex index;
+
+    @BeforeAll
+    public static void setUp() {
+        index = MetadataFieldIndex.of(TestDatasets.cars().getJsonObject("datasetVersion"));
+    }
+
+    @Test
+    public void testGetPrimitiveValue() {
+        assertEquals("Cars", index.getPrimitiveValue("title", "no-title"));
+        assertEquals("no-title", index.getPrimitiveValue("doesNotExist", "no-title"));
+        // compound is not a primitive
+        assertEquals("none", index.getPrimitiveValue("author", "none"));
+    }
+
+    @Test
+    public void testGetMultipleValues() {
+        List<String> languages = index.getMultipleValues("language");
+        assertEquals(Arrays.asList("Danish", "Dutch", "English"), languages);
+        assertTrue(index.getMultipleValues("title").isEmpty());
+    }
+
+    @Test
+    public void testGetCompoundValues() {
+        assertEquals(2, index.getCompoundValues("author").size());
+        assertEquals(3, index.getCompoundValues("keyword").size());
+        assertTrue(index.getCompoundValues("title").isEmpty());
+        assertTrue(index.getCompoundValues("doesNotExist").isEmpty());
+    }
+
+    @Test
+    public void testFieldView() {
+        MetadataFieldIndex.Field subject = index.get("subject");
+        assertNotNull(subject);
+        assertEquals("citation", subject.blockName);
+        assertTrue(subject.isControlledVocabulary());
+        assertTrue(subject.multiple);
+        assertNull(index.get("authorName")); // sub fields of a compound are not indexed
+    }
+}
@@ -0,0 +1,109 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.gdcc.spi.export.ExportException;
+import jakarta.json.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.jupiter.api.Test;
+
+public class PagedExportTest {
+    private static final String PERSISTENT_URL = "https://doi.org/10.5072/FK2/SAMPLE";
+
+    private final JsonObject datasetJson = Warmup.readSampleDataset();
+    private final DCATAPExporter exporter = new DCATAPExporter();
+
+    PagedExportTest() {
+        exporter.setExportCache(null);
+        exporter.setGraphCache(null);
+    }
+
+    private Model export(ExportConfig config) throws ExportException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.exportDataset(TestDatasets.provider(datasetJson), out, config);
+        return read(out.toByteArray(), config);
+    }
+
+    private Model exportFromStream(ExportConfig config) throws ExportException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.exportDataset(new ByteArrayInputStream(datasetJson.toString().getBytes(StandardCharsets.UTF_8)),
+                out, config);
+        return read(out.toByteArray(), config);
+    }
+
+    private static Model read(byte[] exported, ExportConfig config) {
+        Model model = ModelFactory.createDefaultModel();
+        if (config.getFormat() == ExportFormat.JSON_LD) {
+            RDFDataMgr.read(model, new ByteArrayInputStream(exported), Lang.JSONLD);
+        } else {
+            model.read(new ByteArrayInputStream(exported), null, config.getFormat().getOutputLang());
+        }
+        return model;
+    }
+
+    private static Resource page(Model model, int page) {
+        return model.createResource(PERSISTENT_URL + "?page=" + page);
+    }
+
+    @Test
+    public void testPages() throws ExportException {
+        ExportConfig config = ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE);
+        Model first = export(config.withPaging(2, 1));
+        Resource dataset = first.createResource(PERSISTENT_URL);
+        assertTrue(first.contains(dataset, Vocab.DCT.title));
+        assertEquals(2, first.listObjectsOfProperty(dataset, Vocab.DCAT.distribution).toList().size());
+        assertTrue(first.contains(page(first, 1), Vocab.HYDRA.next, page(first, 2)));
+        assertTrue(first.contains(page(first, 1), Vocab.HYDRA.last, page(first, 2)));
+        assertFalse(first.contains(page(first, 1), Vocab.HYDRA.previous));
+        assertEquals(3, first.getProperty(dataset, Vocab.HYDRA.totalItems).getInt());
+
+        Model second = export(config.withPaging(2, 2));
+        assertFalse(second.contains(dataset, Vocab.DCT.title));
+        assertEquals(1, second.listObjectsOfProperty(dataset, Vocab.DCAT.distribution).toList().size());
+        assertTrue(second.contains(page(second, 2), Vocab.HYDRA.previous, page(second, 1)));
+        assertFalse(second.contains(page(second, 2), Vocab.HYDRA.next));
+
+        // together the pages have everything, and the links
+        Model all = export(config);
+        Model pages = first.union(second);
+        pages.remove(pages.listStatements(dataset, Vocab.HYDRA.view, (Resource) null));
+        pages.remove(pages.listStatements(dataset, Vocab.HYDRA.totalItems, (String) null));
+        for (int page = 1; page <= 2; page++) {
+            StmtIterator links = pages.listStatements(page(pages, page), null, (Resource) null);
+            pages.remove(links);
+        }
+        assertTrue(all.isIsomorphicWith(pages));
+    }
+
+    @Test
+    public void testPageFromStream() throws ExportException {
+        for (ExportConfig config : new ExportConfig[] {ExportConfig.DEFAULT.withPaging(2, 2), 
+                ExportConfig.DEFAULT.withFormat(ExportFormat.TURTLE).withStreaming(true).withPaging(2, 1)}) {
+            assertTrue(export(config).isIsomorphicWith(exportFromStream(config)), config.toString());
+        }
+    }
+
+    @Test
+    public void testPageTemplateAndJsonLd() throws ExportException {
+        ExportConfig config = ExportConfig.DEFAULT.withFormat(ExportFormat.JSON_LD)
+                .withPageUrlTemplate("https://demo.dataverse.org/dcat?id={persistentUrl}&page={page}")
+                .withPaging(1, 3);
+        Model model = export(config);
+        Resource view = model.createResource("https://demo.dataverse.org/dcat?id=" + PERSISTENT_URL + "&page=3");
+        assertTrue(model.contains(view, Vocab.RDF.type, Vocab.HYDRA.PartialCollectionView));
+        assertTrue(model.contains(view, Vocab.HYDRA.first));
+    }
+
+    @Test
+    public void testPageAfterLast() {
+        assertThrows(ExportException.class, () -> export(ExportConfig.DEFAULT.withPaging(2, 3)));
+    }
+}
@@ -0,0 +1,105 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.jena.rdf.model.Model;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ParallelExportTest {
+
+    static JsonObject datasetJson;
+
+    @BeforeAll
+    public static void setUp() {
+        JsonObject carsJson = TestDatasets.cars();
+        // enough files for more than one chunk, the last one not full
+        JsonArray files = carsJson.getJsonObject("datasetVersion").getJsonArray("files");
+        JsonArrayBuilder manyFiles = Json.createArrayBuilder();
+        for (int i = 0; i < ParallelExport.CHUNK_SIZE + 123; i++) {
+            JsonObject file = files.getJsonObject(i % files.size());
+            manyFiles.add(Json.createObjectBuilder(file)
+                    .add("dataFile", Json.createObjectBuilder(file.getJsonObject("dataFile"))
+                            .add("id", 1000 + i)
+                            .add("checksum", Json.createObjectBuilder()
+                                    .add("type", "MD5")
+                                    .add("value", String.format("%032x", i)))));
+        }
+        datasetJson = Json.createObjectBuilder(carsJson)
+                .add("datasetVersion", Json.createObjectBuilder(carsJson.getJsonObject("datasetVersion"))
+                        .add("files", manyFiles))
+                .build();
+    }
+
+    @Test
+    public void testSameAsSequentialExport() throws Exception {
+        DCATAPExporter exporter = new DCATAPExporter();
+        exporter.setExportCache(null);
+        Model expected = exporter.createRDFModelFromDatasetJson(datasetJson);
+
+        for (ExportFormat format : ExportFormat.values()) {
+            for (boolean streaming : new boolean[] {false, true}) {
+                ExportConfig config = ExportConfig.DEFAULT
+                        .withFormat(format)
+                        .withStreaming(streaming)
+                        .withParallelThreshold(1);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                exporter.exportDataset(TestDatasets.provider(datasetJson), out, config);
+
+                Model actual = DCATAPExporterTest.readModel(out.toByteArray(), format);
+                assertTrue(expected.isIsomorphicWith(actual), "Not the same for " + config);
+            }
+        }
+    }
+
+    @Test
+    public void testOutputDoesNotDependOnScheduling() throws Exception {
+        DCATAPExporter exporter = new DCATAPExporter();
+        ForkJoinPool singleWorker = new ForkJoinPool(1);
+        ForkJoinPool manyWorkers = new ForkJoinPool(8);
+        try {
+            for (ExportFormat format : ExportFormat.values()) {
+                if (!ParallelExport.canWriteFragments(format)
+                        || format == ExportFormat.RDF_THRIFT || format == ExportFormat.RDF_PROTO) {
+                    // the binary formats are covered by comparing the graphs
+                    continue;
+                }
+                ExportConfig config = ExportConfig.DEFAULT.withFormat(format).withStreaming(true);
+                ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+                new ParallelExport(exporter, singleWorker).write(datasetJson, sequential, config);
+                ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+                new ParallelExport(exporter, manyWorkers).write(datasetJson, parallel, config);
+
+                // blank node labels are generated, so only compare the order in which they appear
+                assertEquals(relabelBlankNodes(sequential), relabelBlankNodes(parallel));
+            }
+        } finally {
+            singleWorker.shutdown();
+            manyWorkers.shutdown();
+        }
+    }
+
+    private static String relabelBlankNodes(ByteArrayOutputStream out) {
+        Matcher matcher = Pattern.compile("(_:|rdf:nodeID=\")(\\w+)")
+                .matcher(new String(out.toByteArray(), StandardCharsets.UTF_8));
+        Map<String, String> labels = new HashMap<>();
+        StringBuilder sb = new StringBuilder();
+        while (matcher.find()) {
+            String label = labels.computeIfAbsent(matcher.group(2), l -> "b" + labels.size());
+            matcher.appendReplacement(sb, matcher.group(1) + label);
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+}
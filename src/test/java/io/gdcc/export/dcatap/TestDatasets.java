@@ -0,0 +1,59 @@
+package io.gdcc.export.dcatap;
+
+import io.gdcc.spi.export.ExportDataProvider;
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The dataset JSON the tests export, and a data provider for it.
+ */
+final class TestDatasets {
+    static final String CARS = "src/test/resources/cars/in/datasetJson.json";
+
+    private TestDatasets() {
+    }
+
+    /** The dataset JSON of the cars example. */
+    static JsonObject cars() {
+        try (JsonReader jsonReader = Json.createReader(new FileReader(CARS))) {
+            return jsonReader.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** A data provider with only the dataset JSON, that is all the exporter uses. */
+    static ExportDataProvider provider(JsonObject json) {
+        return new ExportDataProvider() {
+            @Override
+            public JsonObject getDatasetJson() {
+                return json;
+            }
+
+            @Override
+            public JsonObject getDatasetORE() {
+                return null;
+            }
+
+            @Override
+            public JsonArray getDatasetFileDetails() {
+                return null;
+            }
+
+            @Override
+            public JsonObject getDatasetSchemaDotOrg() {
+                return null;
+            }
+
+            @Override
+            public String getDataCiteXml() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package io.gdcc.export.dcatap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class WarmupTest {
+
+    @Test
+    public void testDisabledByDefault() {
+        assertNull(Warmup.startIfEnabled());
+    }
+
+    @Test
+    public void testStepTimings() {
+        Warmup warmup = new Warmup();
+        assertFalse(warmup.isDone());
+        warmup.run();
+        assertTrue(warmup.isDone());
+        assertNull(warmup.getFailure());
+        assertEquals(List.of("jena-init", "writers", "sample-export"), new ArrayList<>(warmup.getTimings().keySet()));
+        warmup.getTimings().values().forEach(duration -> assertFalse(duration.isNegative()));
+    }
+
+    @Test
+    public void testSampleDataset() {
+        assertEquals("https://doi.org/10.5072/FK2/SAMPLE", Warmup.readSampleDataset().getString("persistentUrl"));
+    }
+}